@@ -30,11 +30,11 @@ public class Main {
             i7 = new Interval(1),
             i = new Interval(3, 3);
 
-    static /*final*/ ColorClass c1 = new ColorClass(1, i3/*i5*/, true),
-            c2 = new ColorClass(2, new Interval[]{i2, i2, i7}), // split
-            X = new ColorClass("X", i, true),
-            C = new ColorClass("C", new Interval[]{i, i}),
-            c_neutral = new ColorClass("N", i2); // neutral class
+    static /*final*/ ColorClass c1 = ColorClass.factory(1, i3/*i5*/, true),
+            c2 = ColorClass.factory(2, new Interval[]{i2, i2, i7}), // split
+            X = ColorClass.factory("X", i, true),
+            C = ColorClass.factory("C", new Interval[]{i, i}),
+            c_neutral = ColorClass.factory("N", i2); // neutral class
 
     private static void test0() {
         Projection f = Projection.builder(1, X),
@@ -239,7 +239,7 @@ public class Main {
 
         System.out.println("normalizzo\n" + f7 + "\n" + Expressions.toStringDetailed(f7.simplify()));
         Tuple t1, t2, t3;
-        Domain d2 = new Domain(c2, c2);
+        Domain d2 = Domain.factory(c2, c2);
         t1 = new Tuple(d2, f6);
         t2 = new Tuple(d2, f7);
         TupleSum ts = (TupleSum) TupleSum.factory(false, t1, t2);
@@ -442,7 +442,7 @@ public class Main {
         System.out.println(Expressions.toStringDetailed(bc.simplify()));
 
         System.out.println("\n******** tuple ***********\n");
-        Domain d1 = new Domain(c1, c1, c2, c2, c2) /*null*/;
+        Domain d1 = Domain.factory(c1, c1, c2, c2, c2) /*null*/;
         System.out.println("d1: " + d1);
         FunctionTuple in;
         TupleSum sum;
@@ -635,7 +635,7 @@ public class Main {
      */
     public static void testExtra() {
         final Interval in = new Interval(3, 5/*5*/);
-        ColorClass A = new ColorClass("A", in, true);
+        ColorClass A = ColorClass.factory("A", in, true);
         final Projection a1, a1_4, a2, a2_1, a2_4, a3, a3_2, a3_3;
         a1 = Projection.builder(1, A);
         a2 = Projection.builder(2, A);
@@ -655,7 +655,7 @@ public class Main {
         final Intersection in1 = (Intersection) Intersection.factory(false, p1_4c, p2c),
                 in2 = (Intersection) Intersection.factory(false, p1c, p2_1c);
         final And guard, filter;
-        Domain d3 = new Domain(A, A, A);
+        Domain d3 = Domain.factory(A, A, A);
 
         //filter
         eq1 = (Equality) Equality.builder(a1, a2_4, true, d3);
@@ -687,13 +687,13 @@ public class Main {
         //System.out.println("semplifico:\n"+Expressions.verbNormalize(ts,LogExprSimplifier.builder(false))+'\n');
         List<SetFunction> args = Collections.nCopies(5, (SetFunction) p1c);
         args.set(1, Intersection.factory(false, p1c, ProjectionComp.factory(a1.setExp(1)).cast()));
-        Tuple sx = new Tuple(args, new Domain(A));
+        Tuple sx = new Tuple(args, Domain.factory(A));
         //sx.setComponent(1, a1);
         //sx.setComponent(2, Intersection.factory(false,p1c,ProjectionComp.factory(a1.setExp(1))));
         //sx.setComponent(3, Intersection.factory(false,p1c,ProjectionComp.factory(a1.setExp(1))));
         //sx.setComponent(4, a1);
         System.out.println("\nsx\n" + sx);
-        System.out.println(new TupleComposition(sx, new Tuple(Collections.singletonList(p1c), new Domain(A))).simplify());
+        System.out.println(new TupleComposition(sx, new Tuple(Collections.singletonList(p1c), Domain.factory(A))).simplify());
         //System.exit(0);
     }
 
@@ -707,8 +707,8 @@ public class Main {
         p1 = Projection.builder(1, -2, c1);
         p2 = Projection.builder(2, 1, c1);
         p3 = Projection.builder(3, -1, c1);
-        g1 = Equality.builder(p1, p2, false, new Domain(c1, c1));
-        g2 = Equality.builder(p2, p1, false, new Domain(c1, c1));
+        g1 = Equality.builder(p1, p2, false, Domain.factory(c1, c1));
+        g2 = Equality.builder(p2, p1, false, Domain.factory(c1, c1));
         if (!g1.equals(g2)) {
             System.out.println("problema");
             throw new Error();
@@ -719,8 +719,8 @@ public class Main {
         System.out.println("ecco g2\n" + g2 + " " + g2.getDomain());
         System.out.println("ecco g2 semplificato\n" + Expressions.toStringDetailed(g2.simplify()));
         p4 = Projection.builder(2, c1);
-        g2 = Equality.builder(p1, p4, false, new Domain(c1, c1));
-        g11 = And.factory(Equality.builder(p1, p3, false, new Domain(c1, c1, c1)), Equality.builder(p2, p1, false, new Domain(c1, c1, c1)));
+        g2 = Equality.builder(p1, p4, false, Domain.factory(c1, c1));
+        g11 = And.factory(Equality.builder(p1, p3, false, Domain.factory(c1, c1, c1)), Equality.builder(p2, p1, false, Domain.factory(c1, c1, c1)));
         System.out.println("ecco g11\n" + g11);
         System.out.println("ecco g11 semplificato\n" + Expressions.toStringDetailed(g11.simplify()));
         //System.out.println("ecco g11 semplificato (solo specSimplify)\n"+g11.specSimplify());
@@ -730,13 +730,13 @@ public class Main {
         sc3 = Subcl.factory(3, c2);
         Projection np2 = Projection.builder(2, c2),
                 np3 = Projection.builder(3, c2), np4 = Projection.builder(4, c2);
-        Membership m1 = (Membership) Membership.build(np4, sc2, true, new Domain(c2, c2, c2, c2)),
-                m2 = (Membership) Membership.build(np4, sc1, false, new Domain(c2, c2, c2, c2));
+        Membership m1 = (Membership) Membership.build(np4, sc2, true, Domain.factory(c2, c2, c2, c2)),
+                m2 = (Membership) Membership.build(np4, sc1, false, Domain.factory(c2, c2, c2, c2));
         g0 = (Guard) g2.andFactory(m1, m2/*, false*/);
         System.out.println("ecco g0\n" + g0);
         System.out.println("ecco g0 semplificato\n" + Expressions.toStringDetailed(g0.simplify()));
 
-        Domain d1 = new Domain(c1, c1, c1, c1, c2, c2, c2, c2, c2);
+        Domain d1 = Domain.factory(c1, c1, c1, c1, c2, c2, c2, c2, c2);
         System.out.println("d1: " + d1);
         Equality eq1 = (Equality) Equality.builder(np2, np3, false, d1),
                 eq2 = (Equality) Equality.builder(np3, np4, false, d1);
@@ -845,8 +845,8 @@ public class Main {
                 c_4 = Projection.builder(4, C);
         Subcl S_1 = Subcl.factory(1, C),
                 S_2 = Subcl.factory(2, C);
-        Domain d1 = new Domain(C),
-                d2 = new Domain(C, C); // C x C
+        Domain d1 = Domain.factory(C),
+                d2 = Domain.factory(C, C); // C x C
         Guard g1 = Membership.build(c_1, S_1, true, d2),
                 g2 = Membership.build(c_2, S_1, true, d2),
                 g1_1 = Membership.build(c_1, S_1, true, d1),
@@ -920,7 +920,7 @@ public class Main {
         l2 = new LinearComb(c_2, c_4, c_1, S_1, c_4, S_2);
         l3 = new LinearComb(c_3, c_1, c_1, S_1, c_4, S_2, S_1);
         System.out.println(l + " -> " + l.components());
-        Domain d4 = new Domain(C, C, C, C);
+        Domain d4 = Domain.factory(C, C, C, C);
         WNtuple wnt;
         List<LinearComb> lb = new ArrayList<>(Arrays.asList(new LinearComb[]{l1, l2, l3}));
         Equality eq1 = (Equality) Equality.builder(c_2, c_3, false, d4),
@@ -951,10 +951,10 @@ public class Main {
     example used in PN2020 paper
      */
     static void petriNets20() {
-        C = new ColorClass("C", true); //ordered class C s.t. |C| > 1
+        C = ColorClass.factory("C", true); //ordered class C s.t. |C| > 1
 
         Interval i1 = new Interval(3, 8), ni2 = new Interval(2, 2); // [3,8] and [2,2] (constraints)
-        ColorClass D = new ColorClass("D", new Interval[]{i1, ni2}); // partitioned class D
+        ColorClass D = ColorClass.factory("D", new Interval[]{i1, ni2}); // partitioned class D
         Projection c_1 = Projection.builder(1, C), // c_1
                 c_2 = Projection.builder(2, 1, C), // !c_2
                 d_1 = Projection.builder(1, D); // d_1
@@ -964,7 +964,7 @@ public class Main {
         Subcl sd2 = Subcl.factory(2, D); // constant D{2}
         SetFunction inter;
         inter = Intersection.factory(comp_d_1, sd2); // D{2} \cap S -d1 
-        Domain dom = new Domain(C, C, D); // domain C^2 x D
+        Domain dom = Domain.factory(C, C, D); // domain C^2 x D
         Guard g1 = Membership.build(d_1, sd2, true, dom); // guard d_1 \in D{2}
         Tuple t1, t2, t3;
         t1 = new Tuple(dom, c_1, comp_c_1, c_2, d_1); // <c_1,S-c_1,!c_2,d_1>
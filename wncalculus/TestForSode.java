@@ -26,7 +26,7 @@ public class TestForSode {
         Interval i1 = new Interval(3,3), //intervallo formato da 3 elementi
                  i2 = new Interval(4,4); //intervallo formato da 4 elementi
         //color-class
-        ColorClass c1 = new ColorClass("X", new Interval[] {i1,i2}); // color class di nome "X" partizionata in due sottoclassi
+        ColorClass c1 = ColorClass.factory("X", new Interval[] {i1,i2}); // color class di nome "X" partizionata in due sottoclassi
                                                                      // ciascuna di card. 3
         //class-functions
         Projection x2 = Projection.builder (2,c1),
@@ -37,8 +37,8 @@ public class TestForSode {
         Subcl sc1 = Subcl.factory(1, c1); // S{C1}
    
         //domini
-        Domain d1 = new Domain(c1,c1),    // d1 : c1 x c1
-               d2 = new Domain(c1,c1,c1); // d2 : c1 x c1 x c1
+        Domain d1 = Domain.factory(c1,c1),    // d1 : c1 x c1
+               d2 = Domain.factory(c1,c1,c1); // d2 : c1 x c1 x c1
         
         //guardie-filtri
         Equality e1 = (Equality) Equality.builder(x1, x2, true, d1), // [x1 = x2]
@@ -0,0 +1,117 @@
+import java.util.*;
+import classfunction.*;
+import color.ColorClass;
+import expr.*;
+import guard.*;
+import tuple.*;
+import util.IntMultiset;
+
+/**
+ * this class times the transpose of function-tuples: that of "permutation" tuples,
+ * i.e., tuples of distinct projections with (in)equality filters and guards
+ * (e.g., &lt;c_2,c_3,c_1&gt;[c_1 != c_2]), solved in one step, and that of tuples
+ * requiring the general algorithm (e.g., with complements); the transposes are
+ * first checked against the definition, on the smallest sizes of color classes
+ * @author Lorenzo Capra
+ */
+public class TransposeBenchmark {
+
+    private static final int TUPLES = 200, ROUNDS = 20;
+
+    /**
+     *
+     * @param args command line arguments: the (optional) number of rounds
+     */
+    public static void main(String[] args) {
+        final int rounds = args.length > 0 ? Integer.parseInt(args[0]) : ROUNDS;
+        final ColorClass C = ColorClass.factory("C", new Interval(2)), O = ColorClass.factory("O", new Interval(3), true);
+        final Random rnd = new Random(20);
+        final List<Tuple> perms = new ArrayList<>(), general = new ArrayList<>();
+        for (int i = 0; i < TUPLES; i++) {
+            final int n = 2 + rnd.nextInt(4);
+            perms.add(randomTuple(n, i % 2 == 0 ? C : O, rnd, false));
+            general.add(randomTuple(n, i % 2 == 0 ? C : O, rnd, true));
+        }
+        System.out.println("permutation tuples, e.g.: " + perms.get(0) + "' = " + new TupleTranspose(perms.get(0)).normalize());
+        System.out.println("general tuples, e.g.: " + general.get(0) + "' = " + new TupleTranspose(general.get(0)).normalize());
+        check(perms);
+        check(general);
+        run("permutation", perms, rounds);
+        run("general", general, rounds);
+    }
+
+    /*
+    builds a tuple of n components on the class cc, whose components are a (random)
+    permutation of projections; if required, one component is replaced by the
+    complement of a projection; the guard is a random inequality
+    */
+    private static Tuple randomTuple(final int n, final ColorClass cc, final Random rnd, final boolean complement) {
+        final Domain dom = Domain.factory(cc, n);
+        final List<SetFunction> comps = new ArrayList<>();
+        for (int i = 1; i <= n; i++) {
+            comps.add(Projection.builder(i, cc.isOrdered() ? rnd.nextInt(2) : 0, cc));
+        }
+        Collections.shuffle(comps, rnd);
+        if (complement) {
+            final int i = rnd.nextInt(n);
+            comps.set(i, ProjectionComp.factory((Projection) comps.get(i)).cast());
+        }
+        final int a = 1 + rnd.nextInt(n), b = 1 + (a + rnd.nextInt(n - 1)) % n;
+        final Guard g = Equality.builder(Projection.builder(a, cc), Projection.builder(b, cc), false, dom);
+
+        return (Tuple) new Tuple(g, comps.toArray(new SetFunction[n])).normalize();
+    }
+
+    /*
+    checks that each transpose is correct: for any binding b and color tuple c,
+    the multiplicity of c in t(b) equals that of b in t'(c)
+    */
+    private static void check(final List<Tuple> tuples) {
+        for (Tuple t : tuples) {
+            final IntMultiset[] f = evaluate(t), tr = evaluate((FunctionTuple) new TupleTranspose(t).normalize());
+            for (int b = 0; b < f.length; b++) {
+                for (int c = 0; c < tr.length; c++) {
+                    if (f[b].count(c) != tr[c].count(b)) {
+                        throw new IllegalStateException("wrong transpose of " + t + ": " + new TupleTranspose(t).normalize());
+                    }
+                }
+            }
+        }
+    }
+
+    /*
+    the values of a tuple, or a sum of tuples, on all the bindings
+    */
+    private static IntMultiset[] evaluate(final FunctionTuple f) {
+        if (f instanceof Tuple t) {
+            return TupleEvaluator.compile(t, Collections.emptyMap()).evaluateAll();
+        }
+        IntMultiset[] res = null;
+        for (FunctionTuple x : ((TupleSum) f).getArgs()) {
+            final IntMultiset[] v = evaluate(x);
+            if (res == null) {
+                res = v;
+            } else {
+                for (int b = 0; b < v.length; b++) {
+                    res[b].addAll(v[b], 1);
+                }
+            }
+        }
+
+        return res;
+    }
+
+    private static void run(final String name, final List<Tuple> tuples, final int rounds) {
+        for (Tuple t : tuples) { // warm-up
+            new TupleTranspose(t).normalize();
+        }
+        final long start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            for (Tuple t : tuples) {
+                new TupleTranspose(t).normalize();
+            }
+        }
+        final long ns = (System.nanoTime() - start) / ((long) rounds * tuples.size());
+        System.out.println(name + ": " + ns / 1000 + " us per transpose (" + rounds * tuples.size() + " transposes)");
+    }
+}
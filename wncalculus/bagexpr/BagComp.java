@@ -3,6 +3,7 @@ package bagexpr;
 import java.util.*;
 import expr.*;
 import logexpr.SetExpr;
+import wnbag.BulkBagComp;
 
 /**
  * the super-type of the composition of bags of (linear) functions
@@ -92,6 +93,10 @@ public final class BagComp<E extends ParametricExpr> implements BagExpr<E>, Comp
                         return ScalarProd.factory((BagExpr<E>) lb.clone(rb.getDomain()), c);
                 }
                 else { //both lb and rb are (non empty) bags, with lb other than constant
+                    final BagExpr<E> bulk = BulkBagComp.composeLarge(lb, rb); // many pairs of function-tuples: composed in parallel
+                    if (bulk != null)
+                        return bulk;
+                    
                     ArrayList<BagExpr<E>> blist = new ArrayList<>();
                     if ( lb.size() == 1 ) { // the left one is a singleton bag
                         E lf = lb.support().iterator().next(); // the left bag's term
@@ -5,6 +5,7 @@ import java.util.function.BiFunction;
 import color.ColorClass;
 import guard.*;
 import expr.Domain;
+import expr.Polynomial;
 import expr.Sort;
 import logexpr.LogicalExprs;
 import logexpr.OrOp;
@@ -268,6 +269,23 @@ public abstract class LogicalBag<E extends SetExpr> extends AbstractBag<E>  {
         return card;    
     }
     
+    /**
+     * @return the sum of (symbolic) cardinalities of <tt>this</tt> bag's terms weighted by the
+     * corresponding multiplicities; <tt>null</tt> if, for any reasons, some of them cannot be computed
+     * @see SetExpr#cardPolynomial
+    */
+    public Polynomial cardPolynomial() {
+        Polynomial card = Polynomial.ZERO;
+        for (Map.Entry<? extends E, Integer> x : asMap().entrySet()) {
+            Polynomial k = x.getKey().cardPolynomial();
+            if (k == null)
+                return null;
+            
+            card = card.plus(k.times(Polynomial.constant(x.getValue())));
+        }
+        return card;    
+    }
+    
     /**
      * computes (efficiently) the support of <tt>this</tt> bag,
      * considering only terms with positive coefficients;
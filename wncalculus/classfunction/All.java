@@ -3,6 +3,8 @@ package classfunction;
 import java.util.*;
 import color.ColorClass;
 import expr.Interval;
+import expr.Polynomial;
+import util.InternTable;
 
 /**
  * this class defines diffusion class-functions (denoted by S)
@@ -10,7 +12,7 @@ import expr.Interval;
  */
 public final class All extends ConstantFunction  {
   
-    private static final Map<ColorClass,All> VALUES = new HashMap<>();
+    private static final InternTable<ColorClass,All> VALUES = new InternTable<>("All");
     
     private final static String Symbol = "S";
      
@@ -27,11 +29,7 @@ public final class All extends ConstantFunction  {
      * @return build an <tt>All</tt> constant of given colour
      */
     public static final All getInstance(ColorClass cc) {
-        All f;
-        if ((f = VALUES.get(cc)) == null) 
-            VALUES.put(cc, f = new All(cc)) ;
-        
-        return f;
+        return VALUES.intern(cc, () -> new All(cc));
     }
         
     /**
@@ -41,6 +39,11 @@ public final class All extends ConstantFunction  {
     public Interval card() {
         return getConstraint();
     }
+
+    @Override
+    public Polynomial cardPolynomial() {
+        return Polynomial.variable(getSort());
+    }
     
     /**
      * sets a new constraint for <tt>this</tt> function
@@ -3,6 +3,7 @@ package classfunction;
 import java.util.Objects;
 import logexpr.NotOp;
 import expr.Interval;
+import expr.Polynomial;
 
 /**
  * this class implements the "complementary" functional operator for
@@ -53,17 +54,26 @@ public final class Complement extends UnaryClassOp implements NotOp<SetFunction>
         if (mycard != null) {
             final var in = getConstraint();
             if (mycard.equals(in)) {
-                return new Interval(0, 0);
+                return Interval.factory(0, 0);
             } else {
                 final Integer card = mycard.singleValue();
                 if (card != null) {
-                    return in.unbounded() ? new Interval(in.lb() - card) : new Interval(in.lb() - mycard.lb(), in.ub() - card);
+                    return in.unbounded() ? Interval.factory(in.lb() - card) : Interval.factory(in.lb() - mycard.lb(), in.ub() - card);
                 }
             }
         }
         return null;
     }
 
+    /**
+     * @return the size of the color class minus that of the argument
+     */
+    @Override
+    public Polynomial cardPolynomial() {
+        final var p = getArg().cardPolynomial();
+        return p == null ? null : Polynomial.variable(getSort()).minus(p);
+    }
+
     @Override
     public boolean equals(Object o) {
         return NotOp.super.isEqual(o);
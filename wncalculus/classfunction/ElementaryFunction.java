@@ -10,12 +10,15 @@ import wnbag.LinearComb;
  * each elementary function is unmodifiable and simplified just after its creation
  * it is provided with a suitable builder method ensuring that 
  * elementary function instances are unique - there is no need to redefine
- * <code>Object.equals</code> and <code>Object.hashCode</code>
+ * <code>Object.equals</code>; <code>Object.hashCode</code> is redefined anyway
+ * so that hash-codes (hence, the iteration order of hash-based collections)
+ * do not vary between runs
  * @author lorenzo capra
  */
 public abstract class ElementaryFunction extends SetFunction  {  
     
     private final ColorClass cc;  
+    private final int hash; // depends on the color and the type only
     
     /**
      * build an elementary class-function
@@ -24,6 +27,12 @@ public abstract class ElementaryFunction extends SetFunction  {
     protected ElementaryFunction (final ColorClass cc) {
         super(true); //already simplified
         this.cc = cc;
+        this.hash = 31 * cc.hashCode() + getClass().getName().hashCode();
+    }
+    
+    @Override
+    public int hashCode() {
+        return this.hash;
     }
     
     @Override
@@ -3,6 +3,7 @@ package classfunction;
 import java.util.*;
 import color.ColorClass;
 import expr.Interval;
+import util.InternTable;
 import util.Pair;
 
 /**
@@ -11,7 +12,7 @@ import util.Pair;
  */
 public final class Empty extends ConstantFunction  {
     
-    private static final Map<ColorClass,Empty> VALUES = new HashMap<>();
+    private static final InternTable<ColorClass,Empty> VALUES = new InternTable<>("Empty");
     
     private final static String SYMBOL ="0";
     
@@ -21,11 +22,7 @@ public final class Empty extends ConstantFunction  {
      * @return an <code>Empty</code> class-function of the specified color
      */
     public static final Empty getInstance(ColorClass cc) {
-        Empty f;
-        if ((f = VALUES.get(cc)) == null) 
-            VALUES.put(cc, f = new Empty(cc)) ;
-        
-        return f;
+        return VALUES.intern(cc, () -> new Empty(cc));
     }
     
     /**
@@ -40,7 +37,7 @@ public final class Empty extends ConstantFunction  {
      */
     @Override
     public Interval card() {
-        return new Interval(0,0);
+        return Interval.factory(0,0);
     }
     
     @Override
@@ -146,20 +146,21 @@ public final class Intersection extends N_aryClassOperator implements AndOp<SetF
     @Override
     public Interval card() {
         final Integer k = extendedCompl();
+        Interval c = this.card; // racy single-check (intervals are immutable)
         if (0 != k) {
-            if (this.card == null) {
+            if (c == null) {
                 final Interval in = subclasses().isEmpty() ? getSort().card() : subclasses().iterator().next().card();
                 final int ub = in.ub(), lb;
                 final boolean bounded = !in.unbounded();
                 if (bounded && ub <= k) {
-                    this.card = new Interval(0, 0); // optimization
+                    this.card = c = Interval.factory(0, 0); // optimization
                 } else if ((lb = in.lb()) >= k) //new: in the previous version the cardinality 0 was equipared to null
                 {
-                    this.card = bounded ? new Interval(lb - k, ub - k) : new Interval(lb - k);
+                    this.card = c = bounded ? Interval.factory(lb - k, ub - k) : Interval.factory(lb - k);
                 }
             }
         }
-        return this.card;
+        return c;
     }
 
     /**
@@ -270,7 +271,7 @@ public final class Intersection extends N_aryClassOperator implements AndOp<SetF
     }
 
     @Override
-    public Set<? extends Pair<? extends SetFunction, ? extends Guard>> toSimpleFunctions(final Set<? extends Equality> ineqlist, final Map<Projection, Subcl> inmap, final Map<Projection, Set<Subcl>> notinmap, Domain domain) {
+    public Set<? extends Pair<? extends SetFunction, ? extends Guard>> toSimpleFunctions(final Set<? extends Equality> ineqlist, final SubclMask mask, Domain domain) {
         //System.out.println("Intersection.toSimpleFunctions (1)\n"+this);
         final Set< Pair<SetFunction, Guard>> res = new HashSet<>();
         Projection pr;
@@ -286,7 +287,7 @@ public final class Intersection extends N_aryClassOperator implements AndOp<SetF
                 final Subcl subc = subclasses.iterator().next();
                 for (SetFunction x : operands) {
                     final Subcl sc; // the (possiby null) subclass associated with the arg X_i (pr) of pc by an "in" clause
-                    if (subc.equals(x) || subc.equals(sc = inmap.get(pr = ((ProjectionComp) x).getArg()))) // the i-th sublist contains only ProjectionComp
+                    if (subc.equals(x) || subc.equals(sc = mask.subcl(pr = ((ProjectionComp) x).getArg()))) // the i-th sublist contains only ProjectionComp
                     {
                         continue;
                     }
@@ -294,7 +295,7 @@ public final class Intersection extends N_aryClassOperator implements AndOp<SetF
                     red_args = new HashSet<>(operands);
                     red_args.remove(x); // S - X_i  (pc) is erased from the copy of args of subc
                     final SetFunction redf = Intersection.factory(red_args);
-                    if (sc != null || notinmap.getOrDefault(pr, Collections.emptySet()).contains(subc)) // there is either X_i in sc, sc != subc, or X_i notin subc 
+                    if (sc != null || mask.excludes(pr, subc)) // there is either X_i in sc, sc != subc, or X_i notin subc 
                     {
                         res.add(new Pair<>(redf, True.getInstance(domain)));  // the pc's arg refers to a subclass other than subc ...
                     } else { // neither the pc's arg X_i belongs to any subclass != subc nor there is X_i notin subc
@@ -319,7 +320,7 @@ public final class Intersection extends N_aryClassOperator implements AndOp<SetF
                             for (ProjectionComp pc2 : Util.cast(e2.getValue(), ProjectionComp.class)) {
                                 final Projection p1 = pc1.getArg(), p2 = pc2.getArg();
                                 final Equality eq = (Equality) Equality.builder(p1, p2, false, domain);
-                                if (!(ineqlist.contains(eq) || differentDom(p1, p2, inmap, notinmap))) { // in g there is¨no pc.arg != pc2.arg or pc in sc1,pc in sc2, or ... :
+                                if (!(ineqlist.contains(eq) || mask.differentDom(p1, p2))) { // in g there is¨no pc.arg != pc2.arg or pc in sc1,pc in sc2, or ... :
                                     res.add(new Pair<>(this, eq)); // the equality pc.arg <> pc2.arg is added
                                     red_args = new HashSet<>(operands); //optimization
                                     red_args.remove(pc2);
@@ -358,17 +359,6 @@ public final class Intersection extends N_aryClassOperator implements AndOp<SetF
         return res;
     }
 
-    /*
-    checks whether two variables have different color-sets
-     */
-    private static boolean differentDom(final Projection p1, final Projection p2, final Map<Projection, Subcl> inmap, final Map<Projection, Set<Subcl>> notinmap) {
-        final Subcl sc1 = inmap.get(p1), sc2 = inmap.get(p2);
-        if (sc1 != null && sc2 != null) {
-            return sc1 != sc2;
-        }
-        return notinmap.getOrDefault(p2, Collections.emptySet()).contains(sc1) || notinmap.getOrDefault(p1, Collections.emptySet()).contains(sc2);
-    }
-
     @Override
     public boolean elementary() {
         return getArgs().stream().allMatch(e -> elementary());
@@ -29,7 +29,7 @@ public abstract class N_aryClassOperator extends SetFunction implements N_aryOp<
      *                       than two operands
      */
     protected N_aryClassOperator(final Set<? extends SetFunction> functions, final boolean check) {
-        this.args = Collections.unmodifiableSet(functions);
+        this.args = Expressions.canonicalSet(functions);
         if (this.args.size() < 2) {
             throw new IllegalArgumentException("built n-ary class op with less than two operands");
         }
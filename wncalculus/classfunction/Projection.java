@@ -4,7 +4,7 @@ import expr.*;
 import java.util.*;
 import color.ColorClass;
 import guard.Equality;
-import util.ComplexKey;
+import util.PackedInternTable;
 import util.Pair;
 import util.Util;
 
@@ -15,9 +15,10 @@ import util.Util;
 public final class Projection extends ProjectionBased {
 
     private final int index, succ;//index and successor "argument" of a projection
-    private static final Interval CARD = new Interval(1, 1); // the cardinality
+    private final int hash;
+    private static final Interval CARD = Interval.factory(1, 1); // the cardinality
 
-    private static final Map<ComplexKey, Projection> VALUES = new HashMap<>();
+    private static final PackedInternTable<Projection> VALUES = new PackedInternTable<>("Projection");
 
     /**
      * basic constructor creates a projection with an associated color constraint;
@@ -29,6 +30,12 @@ public final class Projection extends ProjectionBased {
         super(cc);
         this.index = index;
         this.succ = succ;
+        this.hash = (31 * super.hashCode() + index) * 31 + succ;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
     }
 
     
@@ -48,16 +55,10 @@ public final class Projection extends ProjectionBased {
         if (succ != 0 && !cc.isOrdered()) {
             throw new IllegalDomain("cannot build a projection successor in case of unordered color class!");
         } else {
-            if (cc.hasFixedSize()) {
-                succ = Util.valueModN(succ, cc.lb());
-            }
-            final ComplexKey k = new ComplexKey(cc, index, succ);
-            Projection p;
-            if ((p = VALUES.get(k)) == null) {
-                VALUES.put(k, p = new Projection(index, succ, cc));
-                //Util.checkBuilderOneStep(p, VALUES); //debug
-            }
-            return p;
+            final int s = cc.hasFixedSize() ? Util.valueModN(succ, cc.lb()) : succ;
+            final long k = (long) index << 32 | s & 0xffffffffL; // index and successor, packed
+            final Projection p = VALUES.get(cc, null, null, k);
+            return p != null ? p : VALUES.intern(cc, null, null, k, () -> new Projection(index, s, cc));
         }
     }
 
@@ -3,9 +3,11 @@ package classfunction;
 import java.util.*;
 import color.ColorClass;
 import expr.Interval;
+import expr.Polynomial;
 import expr.Sort;
 import guard.Equality;
 import util.ComplexKey;
+import util.InternTable;
 import util.Pair;
 
 /**
@@ -15,7 +17,8 @@ import util.Pair;
 public final class ProjectionComp extends ProjectionBased {
 
     private final Projection pr;
-    private static final Map<ComplexKey, ProjectionComp> VALUES = new HashMap<>();
+    private final int hash;
+    private static final InternTable<ComplexKey, ProjectionComp> VALUES = new InternTable<>("ProjectionComp");
 
     /**
      * @param index the projection's index
@@ -25,6 +28,12 @@ public final class ProjectionComp extends ProjectionBased {
     private ProjectionComp(final Projection arg) {
         super(arg.getSort());
         this.pr = arg;
+        this.hash = 31 * super.hashCode() + arg.hashCode();
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
     }
 
     /**
@@ -38,12 +47,7 @@ public final class ProjectionComp extends ProjectionBased {
         if (cc.isOrdered() && cc.fixedSize() == 2) {
             return pr.setExp(pr.getSucc() == 0 ? 1 : 0);
         } else {
-            ProjectionComp pc;
-            ComplexKey k = new ComplexKey(cc, pr);
-            if ((pc = VALUES.get(k)) == null) {
-                VALUES.put(k, pc = new ProjectionComp(pr));
-            }
-            return pc;
+            return VALUES.intern(new ComplexKey(cc, pr), () -> new ProjectionComp(pr));
         }
     }
 
@@ -70,7 +74,12 @@ public final class ProjectionComp extends ProjectionBased {
     @Override
     public Interval card() {
         final var in = getConstraint();
-        return in.unbounded() ? new Interval(in.lb() - 1) : new Interval(in.lb() - 1, in.ub() - 1);
+        return in.unbounded() ? Interval.factory(in.lb() - 1) : Interval.factory(in.lb() - 1, in.ub() - 1);
+    }
+
+    @Override
+    public Polynomial cardPolynomial() {
+        return Polynomial.variable(getSort()).minus(Polynomial.ONE);
     }
 
     @Override
@@ -4,6 +4,7 @@ import java.util.*;
 import expr.*;
 import guard.Equality;
 import guard.Guard;
+import guard.SubclMask;
 import logexpr.LogicalExpr;
 import logexpr.SetExpr;
 import util.Pair;
@@ -28,7 +29,7 @@ public abstract class SetFunction implements ClassFunction, SetExpr {
     @Override
     public final Domain getDomain() {
         if (dom == null) {
-            dom = new Domain(getSort(), 1);
+            dom = Domain.factory(getSort(), 1);
         }
         return dom;
     }
@@ -118,6 +119,17 @@ public abstract class SetFunction implements ClassFunction, SetExpr {
     public final Integer cardLb() {
         return card() == null ? null : card().lb();
     }
+
+    /**
+     * @return the size of any application of <code>this</code> function, as a
+     * polynomial in the (parametric) size of its color class, valid for any size
+     * fitting the class constraint; <code>null</code> if it cannot be expressed so
+     * (by default, only a fixed size is)
+     */
+    public Polynomial cardPolynomial() {
+        final var c = card();
+        return c == null || !c.singleton() ? null : Polynomial.constant(c.lb());
+    }
     
     /**
      * @return <code>true</code> if and only if this function has (not <code>null</code>) zero cardinality
@@ -174,15 +186,13 @@ public abstract class SetFunction implements ClassFunction, SetExpr {
      * the basic predicates (guard) associated with the tuple in which the
      * function is embedded Default implementation (to override)
      * @param ineqlist the inequalities
-     * @param inmap a map describing the membership "in" predicates
+     * @param mask the subclass bitmask describing the membership predicates
      * @param domain the guard domain
-     * @param notinmap a map describing the membership "notin" predicates (there
-     * may be many, for a given variable)
      * @return if <code>this</code> is an "elementary" intersection-form, an
      * equivalent set (sum) of simple (guarded) class-functions, represented by
      * <code>Pair</code>s (if any); otherwise, an empty-set
      */
-    public Set<? extends Pair<? extends SetFunction, ? extends Guard>> toSimpleFunctions(Set<? extends Equality> ineqlist, Map<Projection, Subcl> inmap, Map<Projection, Set<Subcl>> notinmap, Domain domain) {
+    public Set<? extends Pair<? extends SetFunction, ? extends Guard>> toSimpleFunctions(Set<? extends Equality> ineqlist, SubclMask mask, Domain domain) {
         return Collections.EMPTY_SET;
     }
 
@@ -3,6 +3,7 @@ package classfunction;
 import java.util.*;
 import color.ColorClass;
 import expr.Interval;
+import expr.Polynomial;
 import util.*;
 
 /**
@@ -16,7 +17,8 @@ import util.*;
 public final class Subcl extends ConstantFunction {
 
     private final int index;
-    private static final Map<ComplexKey, Subcl> VALUES = new HashMap<>();
+    private final int hash;
+    private static final PackedInternTable<Subcl> VALUES = new PackedInternTable<>("Subcl");
 
     /**
      * creates a subclass (diffusion) function
@@ -28,6 +30,12 @@ public final class Subcl extends ConstantFunction {
     private Subcl(final int i, final ColorClass cc) {
         super(cc);
         this.index = i;
+        this.hash = 31 * super.hashCode() + i;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
     }
 
     /**
@@ -46,12 +54,8 @@ public final class Subcl extends ConstantFunction {
         if (i < 1 || i > cc.subclasses()) {
             throw new IllegalArgumentException("incorrect subclass index");
         } else {
-            Subcl s;
-            final var k = new ComplexKey(cc, i);
-            if ((s = VALUES.get(k)) == null) {
-                VALUES.put(k, s = new Subcl(i, cc));
-            }
-            return s;
+            final Subcl s = VALUES.get(cc, null, null, i);
+            return s != null ? s : VALUES.intern(cc, null, null, i, () -> new Subcl(i, cc));
         }
     }
 
@@ -72,6 +76,27 @@ public final class Subcl extends ConstantFunction {
         return getSort().getConstraint(this.index);
     }
 
+    /**
+     * @return the size of the subclass; if it is the parametric subclass of a split class,
+     * the size of the class minus that of the other (fixed-size) subclasses
+     */
+    @Override
+    public Polynomial cardPolynomial() {
+        final var cc = getSort();
+        if (!cc.isSplit()) 
+            return Polynomial.variable(cc);
+        
+        if (card().singleton())
+            return super.cardPolynomial();
+        
+        long others = 0;
+        for (int i = 1; i <= cc.subclasses(); i++) 
+            if (i != this.index)
+                others += cc.getConstraint(i).lb(); // the other subclasses have a fixed size
+        
+        return Polynomial.variable(cc).minus(Polynomial.constant(others));
+    }
+
     @Override
     public int splitDelim() { //new 
         return card().lb() == 1 && card().ub() != 1 ? 1 : super.splitDelim(); //could be optimized?
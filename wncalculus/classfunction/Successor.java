@@ -86,6 +86,11 @@ public final class Successor extends UnaryClassOp {
         return getArg().card();
     }
 
+    @Override
+    public Polynomial cardPolynomial() {
+        return getArg().cardPolynomial();
+    }
+
     @Override
     public boolean isInvolution() {
         return false;
@@ -85,7 +85,7 @@ public class Union extends N_aryClassOperator implements OrOp<SetFunction>  {
     public Interval card() {   
         Interval card, sum = null;
         if ( this.disjoined  ) {
-            sum =  new Interval();
+            sum =  Interval.factory(0, 0);
             for (SetFunction f : getArgs()) {
                 if ( (card = f.card()) == null ) {
                      sum = null;
@@ -151,6 +151,30 @@ public class Union extends N_aryClassOperator implements OrOp<SetFunction>  {
         return res;
     } 
             
+    /**
+     * cardinality-based coverage test: the operands don't cover the color class
+     * if the sum of their (upper-bound) cardinalities is less than the class lower bound;
+     * if they are disjoint, they cover the class if the sum of their (lower-bound)
+     * cardinalities is not less than the class upper bound
+     * @return <code>true</code> (<code>false</code>) if the operands surely (don't) cover
+     * the color class; <code>null</code> if the test is inconclusive
+     */
+    @Override
+    public Boolean coverage() {
+        final Interval ccard = getSort().card();
+        Interval sum = Interval.factory(0, 0), card;
+        for (SetFunction f : getArgs()) {
+            if ( (card = f.card()) == null )
+                return null;
+            
+            sum = sum.sum(card);
+        }
+        if (!sum.unbounded() && sum.ub() < ccard.lb())
+            return false;
+        
+        return this.disjoined && !ccard.unbounded() && sum.lb() >= ccard.ub() ? true : null;
+    }
+    
     @Override
     public SetFunction merge() {
         return this;
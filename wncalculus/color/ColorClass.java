@@ -2,6 +2,8 @@ package color;
 
 import java.util.*;
 import expr.*;
+import util.ComplexKey;
+import util.InternTable;
 
 /**
  * This class defines descriptors for SN color classes of (possibly) parametric
@@ -11,128 +13,174 @@ import expr.*;
  */
 public final class ColorClass extends Sort implements Color {
 
+    private static final InternTable<ComplexKey, ColorClass> VALUES = new InternTable<>("ColorClass");
+    // memoization of split and merge: session-scoped, with weakly referenced results (i.e., the derived classes),
+    // keyed on (class, delimiter, half) and (class, partner), respectively; "no split" and "no merge" are not memoized (cheap)
+    private static final InternTable<ComplexKey, ColorClass> SPLITS = new InternTable<>("ColorClass.split2");
+    private static final InternTable<ComplexKey, ColorClass> MERGES = new InternTable<>("ColorClass.merge");
+
     private final boolean ordered;// default unordered, non split
     private final Interval[] constraints;// the constraints associated to the class, default [[2,>]]
+    private final int hash; // pre-computed
     // cashing
     private Interval card; // the class cardinality
     private int paramSubcl = -1; // the parametric sub-interval index (if the class is split and if there is one,
     // -1 means no param subcl
 
-    /**
-     * base constructor: builds a non split color-class
-     * @param name the color class name
-     * @param interval the associated constraint
-     * @param ordered the ordering flag
-     * @throws IllegalArgumentException if the interval lb is zero
-     * or one and ub is is not one
-     */
-    public ColorClass(String name, Interval interval, boolean ordered) {
+    /*
+    base constructor: builds a non split color-class (the ordering flag is assumed consistent with the interval)
+    */
+    private ColorClass(String name, Interval interval, boolean ordered) {
         super(name);
         final var lb = interval.lb();
         if (lb > 1 || lb == 1 && interval.ub() == 1) {
             this.constraints = new Interval[]{interval};
             this.ordered = lb != 1 && ordered;
+            this.hash = hash(name, this.ordered, this.constraints);
         } else {
             throw new IllegalArgumentException("cannot create a color class: zero lb or one lb and ub not one");
         }
     }
 
+    /*
+    creates a partitioned color class, with at most one parametric subclass
+    */
+    private ColorClass(String name, Interval[] intervals) {
+        super(name);
+        if (intervals.length >= 2) {
+            for (int j = 0; j < intervals.length; j++) {
+                if (intervals[j].lb() < 1) {
+                    throw new IllegalArgumentException("cannot create a color class: subclass lower bound zero");
+                } else if (!intervals[j].singleton()) { // parametric interval (subclass)
+                    if (this.paramSubcl >= 0) {
+                        throw new IllegalArgumentException("cannot create a color class: two parametric subclasses");
+                    }
+                    this.paramSubcl = j; // we store the parametric interval index
+                }
+            }
+            this.constraints = intervals;
+            this.ordered = false;
+            this.hash = hash(name, false, intervals);
+        } else {
+            throw new IllegalArgumentException("cannot create a split color class: at least two subclasses required");
+        }
+    }
+
+    /**
+     * builder method for non split classes: the classes built this way are unique
+     * @param name the color class name
+     * @param interval the associated constraint
+     * @param ordered the ordering flag
+     * @return the (unique) color class with the given name, constraint, and ordering
+     * @throws IllegalArgumentException if the interval lb is zero
+     * or one and ub is is not one
+     */
+    public static ColorClass factory(String name, Interval interval, boolean ordered) {
+        final boolean ord = ordered && interval.lb() != 1;
+        return VALUES.intern(new ComplexKey(name, ord, interval), () -> new ColorClass(name, interval, ord));
+    }
+
     /**
-     * creates an unordered, non-split color class
+     * builds an unordered, non-split color class
      * @param name the color class name
      * @param interval the associated constraint
+     * @return the (unique) color class with the given name and constraint
      */
-    public ColorClass(String name, Interval interval) {
-        this(name, interval, false);
+    public static ColorClass factory(String name, Interval interval) {
+        return factory(name, interval, false);
     }
 
     /**
-     * creates a non split class of name C_i
+     * builds a non split class of name C_i
      * @param ide the class index (subscript)
      * @param interval the associated constraint
      * @param ordered ordering flag
+     * @return the (unique) color class with the given index, constraint, and ordering
      */
-    public ColorClass(int ide, Interval interval, boolean ordered) {
-        this("C" + ide, interval, ordered);
+    public static ColorClass factory(int ide, Interval interval, boolean ordered) {
+        return factory("C" + ide, interval, ordered);
     }
 
     /**
-     * creates an unordered, non split class of name C_i
+     * builds an unordered, non split class of name C_i
      * @param ide the class index (subscript)
      * @param interval the associated constraint
+     * @return the (unique) color class with the given index and constraint
      */
-    public ColorClass(int ide, Interval interval) {
-        this(ide, interval, false);
+    public static ColorClass factory(int ide, Interval interval) {
+        return factory(ide, interval, false);
     }
 
     /**
      * builds a non split class with a default parametric constraint <code>[2,&gt;]</code>
      * @param name the class name
      * @param ordered ordering flag
+     * @return the (unique) color class with the given name and ordering
      */
-    public ColorClass(String name, boolean ordered) {
-        this(name, new Interval(2), ordered);
+    public static ColorClass factory(String name, boolean ordered) {
+        return factory(name, Interval.factory(2), ordered);
     }
 
     /**
      * builds an unordered, not split class with a default (parametric) constraint
      * @param name the class name
+     * @return the (unique) color class with the given name
      */
-    public ColorClass(String name) {
-        this(name, false);
+    public static ColorClass factory(String name) {
+        return factory(name, false);
     }
 
     /**
-     * builds an ordered, not split class "C_i" with a default (parametric) constraint
+     * builds a not split class "C_i" with a default (parametric) constraint
      * @param ide the class identifier (subscript)
      * @param ordered ordering flag
+     * @return the (unique) color class with the given index and ordering
      */
-    public ColorClass(int ide, boolean ordered) {
-        this("C_" + ide, ordered);
+    public static ColorClass factory(int ide, boolean ordered) {
+        return factory("C_" + ide, ordered);
     }
 
     /**
      * builds an unordered, non split, class "C_i" with a default parametric constraint
      * @param ide the class identifier (subscript)
+     * @return the (unique) color class with the given index
      */
-    public ColorClass(int ide) {
-        this(ide, false);
+    public static ColorClass factory(int ide) {
+        return factory(ide, false);
     }
 
     /**
-     * creates a partitioned color class, with at most one parametric subclass
+     * builder method for partitioned classes: the classes built this way are unique
      * @param name the class name
-     * @param intervals the intervals associated to ubclasses
+     * @param intervals the intervals associated to subclasses
+     * @return the (unique) partitioned color class with the given name and constraints
+     * @throws IllegalArgumentException if the intervals are not consistent
      * @throws NullPointerException if @param intervals is <code>null</code>
      */
-    public ColorClass(String name, Interval[] intervals) {
-        super(name);
-        if (intervals.length >= 2) {
-            for (int j = 0; j < intervals.length; j++) {
-                if (intervals[j].lb() < 1) {
-                    throw new IllegalArgumentException("cannot create a color class: subclass lower bound zero");
-                } else if (!intervals[j].singleton()) { // parametric interval (subclass)
-                    if (this.paramSubcl >= 0) {
-                        throw new IllegalArgumentException("cannot create a color class: two parametric subclasses");
-                    }
-                    this.paramSubcl = j; // we store the parametric interval index
-                }
-            }
-            this.constraints = intervals;
-            this.ordered = false;
-        } else {
-            throw new IllegalArgumentException("cannot create a split color class: at least two subclasses required");
-        }
+    public static ColorClass factory(String name, Interval[] intervals) {
+        final Interval[] constr = intervals.clone(); // the array is shared by the unique instance
+        return VALUES.intern(new ComplexKey(name, false, Arrays.asList(constr)), () -> new ColorClass(name, constr));
     }
 
     /**
-     * overloaded version of the above constructor
-     * creates a split class with name C_i
+     * builds a partitioned class with name C_i
      * @param ide the class index (subscript)
      * @param intervals the intervals associated with subclasses
+     * @return the (unique) partitioned color class with the given index and constraints
      */
-    public ColorClass(int ide, Interval[] intervals) {
-        this("C_" + ide, intervals);
+    public static ColorClass factory(int ide, Interval[] intervals) {
+        return factory("C_" + ide, intervals);
+    }
+
+    /*
+    the hash-code of a color class
+    */
+    private static int hash(String name, boolean ordered, Interval[] constraints) {
+        int hash = 5;
+        hash = 11 * hash + (ordered ? 1 : 0);
+        hash = 11 * hash + name.hashCode();
+        hash = 11 * hash + Arrays.deepHashCode(constraints);
+        return hash;
     }
 
     /**
@@ -199,9 +247,10 @@ public final class ColorClass extends Sort implements Color {
      */
     @Override
     public Interval card() {
-        if (this.card == null) {
+        Interval c = this.card; // racy single-check (intervals are immutable)
+        if (c == null) {
             if (this.constraints.length == 1) {
-                this.card = this.constraints[0];
+                c = this.constraints[0];
             } else { // partitioned
                 int lb = 0, ub = 0;
                 for (Interval x : this.constraints) {
@@ -209,13 +258,14 @@ public final class ColorClass extends Sort implements Color {
                     ub += x.ub();
                 }
                 if (this.paramSubcl >= 0 && this.constraints[this.paramSubcl].unbounded()) {
-                    this.card = new Interval(lb);
+                    c = Interval.factory(lb);
                 } else {
-                    this.card = new Interval(lb, ub);
+                    c = Interval.factory(lb, ub);
                 }
             }
+            this.card = c;
         }
-        return this.card;
+        return c;
     }
 
     /**
@@ -238,7 +288,7 @@ public final class ColorClass extends Sort implements Color {
         int l = newconstr.length;
         ColorClass c = null;
         if (l == this.constraints.length) {
-            c = l > 1 ? new ColorClass(name(), newconstr) : new ColorClass(name(), newconstr[0], this.ordered);
+            c = l > 1 ? factory(name(), newconstr) : factory(name(), newconstr[0], this.ordered);
         }
         return c;
     }
@@ -271,25 +321,23 @@ public final class ColorClass extends Sort implements Color {
     }
 
     /**
-     * performs a comparison between color classes, considering their constraints
+     * color classes are unique (@see factory), so they are compared by identity
      * @param o the other color class
      * @return <code>true</code> if and only if <code>this</code> and
-     * <code>o</code> are equal
+     * <code>o</code> are the same
      */
     @Override
     public boolean equals(Object o) {
-        ColorClass c;
-        return this == o || o instanceof ColorClass && (c = (ColorClass) o).name().equals(name())
-                && this.ordered == c.ordered && Arrays.equals(this.constraints, c.constraints);
+        return this == o;
     }
 
+    /**
+     * @return the (pre-computed) hash-code, that depends on the class name, ordering and constraints
+     * (rather than on the identity) so that the iteration order of hashed collections is reproducible
+     */
     @Override
     public int hashCode() {
-        int hash = 5;
-        hash = 11 * hash + (this.ordered ? 1 : 0);
-        hash = 11 * hash + name().hashCode();
-        hash = 11 * hash + Arrays.deepHashCode(this.constraints);
-        return hash;
+        return this.hash;
     }
 
     /**
@@ -299,23 +347,31 @@ public final class ColorClass extends Sort implements Color {
      * @param delim a given split-delimiter
      * @return a boolean map (false := 0, true := 1) to the two color-classes
      * obtained from splitting the constraints <code>this</code> ; an empty map
-     * no split is performed
+     * no split is performed; the (unmodifiable) result is memoized
      */
     @Override
     public Map<Boolean, Sort> split2(final int delim) {
-        int toSplit = Math.max(0, this.paramSubcl);
-        Interval[] split = this.constraints[toSplit].split(delim);// the interval to be split
-        if (split.length != 0) {//split
-            Map<Boolean, Sort> res = new HashMap<>();
-            Interval[] newarrc = this.constraints.clone();// the original constraints is copied
-            newarrc[toSplit] = split[0];
-            res.put(false, setConstraint(newarrc)); // false trands for "0"
-            newarrc = this.constraints.clone();
-            newarrc[toSplit] = split[1];
-            res.put(true, setConstraint(newarrc)); // true stands for "1"
-            return res;
+        final ComplexKey k0 = new ComplexKey(this, delim, false), k1 = new ComplexKey(this, delim, true);
+        ColorClass c0 = SPLITS.get(k0), c1 = SPLITS.get(k1);
+        if (c0 == null || c1 == null) {
+            final int toSplit = Math.max(0, this.paramSubcl);
+            final Interval[] split = this.constraints[toSplit].split(delim);// the interval to be split
+            if (split.length == 0) {
+                return Collections.emptyMap();
+            }
+            c0 = SPLITS.intern(k0, () -> splitHalf(toSplit, split[0]));
+            c1 = SPLITS.intern(k1, () -> splitHalf(toSplit, split[1]));
         }
-        return Collections.emptyMap();
+        final Map<Boolean, Sort> res = new HashMap<>();
+        res.put(false, c0); // false trands for "0"
+        res.put(true, c1); // true stands for "1"
+        return Collections.unmodifiableMap(res);
+    }
+
+    private ColorClass splitHalf(final int toSplit, final Interval half) {
+        final Interval[] newarrc = this.constraints.clone();// the original constraints is copied
+        newarrc[toSplit] = half;
+        return setConstraint(newarrc);
     }
 
     /**
@@ -404,9 +460,22 @@ public final class ColorClass extends Sort implements Color {
         }
     }
 
+    /**
+     * the result is memoized, keyed on the partner class
+     */
     @Override
     public ColorClass merge(Sort s) {
         final ColorClass c = (ColorClass) s;
+        final ComplexKey k = new ComplexKey(this, c);
+        final ColorClass res = MERGES.get(k);
+        if (res != null) {
+            return res;
+        }
+        final ColorClass m = computeMerge(c);
+        return m == null ? null : MERGES.intern(k, () -> m);
+    }
+
+    private ColorClass computeMerge(final ColorClass c) {
         for (int i = 0; i < this.constraints.length; i++) {
             final var m = this.constraints[i].merge(c.constraints[i]);
             if (m != null) {
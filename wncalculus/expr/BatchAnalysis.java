@@ -0,0 +1,148 @@
+package expr;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import util.Session;
+
+/**
+ * this class runs batches of independent analysis jobs (e.g., the normalization
+ * of the arc functions of each transition of a net, the composition of their
+ * transposes, ...) concurrently, either on virtual threads (one per job) or on a
+ * bounded pool; the jobs of a batch share the session of the submitting thread
+ * (@see Session), i.e., its thread-safe interning tables, and are given the same
+ * time budget (@see NormalizationBudget), counted from the start of the job
+ * (not from its submission): a job exceeding it completes
+ * exceptionally with a <code>NormalizationTimeout</code>
+ * (or a <code>TimeoutException</code>, if it doesn't normalize any term);
+ * results are given as futures, in the same order as jobs
+ * @author Lorenzo Capra
+ */
+public final class BatchAnalysis implements AutoCloseable {
+
+    private static final long GRACE = 1000; // ms, the delay given a job to notice its deadline
+
+    private final ExecutorService executor;
+    private final boolean owned; // whether the executor has to be shutdown by close
+    private final long budget;   // per job, in ms
+
+    private BatchAnalysis(ExecutorService executor, boolean owned, long budget) {
+        if (budget <= 0)
+            throw new IllegalArgumentException("non-positive budget: "+budget);
+
+        this.executor = executor;
+        this.owned    = owned;
+        this.budget   = budget;
+    }
+
+    /**
+     * creates a batch runner on a given executor (that is not shutdown by <code>close</code>)
+     * @param executor an executor
+     * @param budget the time budget of each job, in ms
+     */
+    public BatchAnalysis(ExecutorService executor, long budget) {
+        this(executor, false, budget);
+    }
+
+    /**
+     * @param budget the time budget of each job, in ms
+     * @return a batch runner starting a virtual thread per job
+     */
+    public static BatchAnalysis virtualThreads(long budget) {
+        return new BatchAnalysis(Executors.newVirtualThreadPerTaskExecutor(), true, budget);
+    }
+
+    /**
+     * @param threads the number of (platform) threads
+     * @param budget the time budget of each job, in ms
+     * @return a batch runner on a pool with the given number of threads
+     */
+    public static BatchAnalysis bounded(int threads, long budget) {
+        return new BatchAnalysis(Executors.newFixedThreadPool(threads), true, budget);
+    }
+
+    /**
+     * @return a batch runner on a pool with as many threads as the available processors,
+     * using the default normalization budget
+     */
+    public static BatchAnalysis bounded() {
+        return bounded(Runtime.getRuntime().availableProcessors(), NormalizationBudget.DEFAULT);
+    }
+
+    /**
+     * submits a batch of jobs
+     * @param <E> the type of the jobs' input
+     * @param <R> the type of the jobs' result
+     * @param inputs the jobs' inputs
+     * @param task the task applied to each input; it must not modify terms shared with other jobs
+     * @return the list of futures of results, in the iteration order of inputs
+     */
+    public <E, R> List<CompletableFuture<R>> submit(Collection<? extends E> inputs, Function<? super E, ? extends R> task) {
+        final Session session = Session.current();
+        final List<CompletableFuture<R>> res = new ArrayList<>(inputs.size());
+        for (E x : inputs) {
+            final CompletableFuture<R> f = new CompletableFuture<>();
+            this.executor.execute(() -> { run(f, session, () -> task.apply(x)); });
+            res.add(f);
+        }
+
+        return res;
+    }
+
+    /*
+    runs a job, unless its future has already been completed (e.g., cancelled);
+    the time budget (and the timeout of the future) starts when the job does
+    */
+    private <R> void run(CompletableFuture<R> f, Session session, Supplier<? extends R> job) {
+        if (f.isDone())
+            return;
+
+        f.orTimeout(this.budget + GRACE, TimeUnit.MILLISECONDS);
+        try {
+            f.complete(session.call(() -> NormalizationBudget.within(this.budget, job)));
+        }
+        catch (RuntimeException | Error e) {
+            f.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * submits a batch of normalizations (@see ParametricExpr.simplify)
+     * @param <E> the type of terms
+     * @param terms a collection of terms
+     * @return the list of futures of normalization results, in the iteration order of terms
+     */
+    public <E extends ParametricExpr> List<CompletableFuture<Set<? extends ParametricExpr>>> simplifyAll(Collection<? extends E> terms) {
+        return submit(terms, t -> t.simplify(false));
+    }
+
+    /**
+     * waits for a list of futures
+     * @param <R> the type of results
+     * @param futures a list of futures
+     * @return the list of results, in the same order
+     * @throws CompletionException if any future completed exceptionally
+     * (the first one in the list, its cause being the job's exception)
+     */
+    public static <R> List<R> joinAll(List<? extends CompletableFuture<? extends R>> futures) {
+        final List<R> res = new ArrayList<>(futures.size());
+        futures.forEach(f -> { res.add(f.join()); });
+
+        return res;
+    }
+
+    /**
+     * shuts down the executor (if owned), waiting for the termination of the running jobs
+     */
+    @Override
+    public void close() {
+        if (this.owned)
+            this.executor.close();
+    }
+
+    @Override
+    public String toString() {
+        return "batch analysis (budget: " + this.budget + " ms) on " + this.executor;
+    }
+}
@@ -88,7 +88,7 @@ public interface CompositionOp<E extends ParametricExpr, F extends ParametricExp
                 copy.put(s, e.getValue());
             });
 
-            left_dom  =  new Domain(copy);
+            left_dom  =  Domain.factory(copy);
         }
         
         return buildOp(left().clone(left_dom, newcd). cast(), right().clone(newdom, left_dom). cast());
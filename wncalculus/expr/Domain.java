@@ -1,8 +1,7 @@
 package expr;
 
 import java.util.*;
-import java.util.Map.Entry;
-
+import util.InternTable;
 import util.Util;
 
 //SI POTREBBE DEFINIRE COME GENERICA RISPETTO AL TIPO DI SORTE
@@ -16,57 +15,113 @@ import util.Util;
  */
 public final class Domain {
     
-    private final Map<Sort,Integer > domain; 
+    private static final InternTable<Key, Domain> VALUES = new InternTable<>("Domain");
+    
+    private final Sort[] sorts; // sorted (w.r.t. the natural order)
+    private final int[] mults; // the corresponding multiplicities
+    private final int hash; // pre-computed
     
+    private volatile Map<Sort,Integer> map; // cashing: the map-view
     private String string; //cashing
       
-    /** 
-     * creates a domain from a (non-empty) map of sorts to integers (i.e., a multiset of sorts)
-     * note that, since an hash-map is used, different sorts should have different names
+    /*
+    the interning key: the sorted sorts and the corresponding multiplicities, which are
+    taken over by the domain built on a miss (so that nothing else is built before the look-up)
+    */
+    private static final class Key {
+        
+        private final Sort[] sorts;
+        private final int[] mults;
+        private final int hash;
+        
+        Key(Map<? extends Sort,Integer> sm) {
+            if (sm.isEmpty())
+                throw new IllegalDomain("empty domain!");
+            
+            this.sorts = sm.keySet().toArray(new Sort[sm.size()]);
+            Arrays.sort(this.sorts);
+            this.mults = new int[this.sorts.length];
+            int h = 0;
+            for (int i = 0; i < this.sorts.length; ++i) {
+                final int k = this.mults[i] = sm.get(this.sorts[i]);
+                if (k == 0)
+                    throw new IllegalDomain("zero multiplicity!");
+                
+                h += this.sorts[i].hashCode() ^ k; // as for maps
+            }
+            this.hash = 59 + h;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            Key k;
+            return this == o || o instanceof Key && (k = (Key) o).hash == this.hash
+                    && Arrays.equals(this.mults, k.mults) && Arrays.equals(this.sorts, k.sorts);
+        }
+        
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+      
+    /*
+    creates a domain from a (checked) key
+    */
+    private Domain(Key k) {
+        this.sorts = k.sorts;
+        this.mults = k.mults;
+        this.hash  = k.hash;
+    }
+    
+    /**
+     * main builder method: the domains built this way are unique, so they can be
+     * compared by identity; different sorts should have different names
      * to avoid any confusion/incongruence (no check is done aboout that)
-     * @param sm an hash-map of sorts to integers
+     * @param sm a (non-empty) map of sorts to integers
+     * @return the domain corresponding to the map
      * @throws IllegalDomain if the map is empty or contains value 0
      */
-    public Domain(HashMap<? extends Sort,Integer> sm) {
-        if (sm.isEmpty())
-            throw new IllegalDomain("empty domain!");
-        if (sm.values().contains(0))
-            throw new IllegalDomain("zero multiplicity!");
+    public static Domain factory(Map<? extends Sort,Integer> sm) {
+        final Key k = new Key(sm);
         
-        this.domain = Collections.unmodifiableMap(sm); //this cast is just syntactical
+        return VALUES.intern(k, () -> new Domain(k));
     }
     
     /**
-     * build a single-sort domain
-     * @param s the domain's getSort
-     * @param k the getSort mult
+     * builds a single-sort domain
+     * @param s the domain's sort
+     * @param k the sort's multiplicity
+     * @return the (unique) corresponding domain
      */
-    public Domain(Sort s, int k) {
-        this(Util.singleMap(s,k));
+    public static Domain factory(Sort s, int k) {
+        return factory(Util.singleMap(s,k));
     }
     
-    /** 
-     * creates a domain from a list of sorts
+    /**
+     * builds a domain from a list of sorts
      * @param sortlist a list of sorts
+     * @return the (unique) corresponding domain
      */
-    public Domain(List<? extends Sort> sortlist)  {
-        this (Util.asMap(sortlist));
+    public static Domain factory(List<? extends Sort> sortlist) {
+        return factory(Util.asMap(sortlist));
     }
     
     /**
-     * creates a domain from an arbitrary number of sorts
+     * builds a domain from an arbitrary number of sorts
      * @param args a var-args of sorts
+     * @return the (unique) corresponding domain
      */
-    public Domain (Sort ... args) {
-        this(Arrays.asList(args));
+    public static Domain factory(Sort ... args) {
+        return factory(Arrays.asList(args));
     }
                 
     /**
      * @return the domain's support, i.e., the set of sorts composing the domain
-     * (actually a @see {SortedSet}) 
+     * (iterated in natural order)
      */
     public Set<Sort> support () {
-        return  this.domain.keySet();
+        return  asMap().keySet();
     }
     
     /**
@@ -74,7 +129,7 @@ public final class Domain {
      * @return the domain's size, i.e., the size of its support  
      */
     public int size() {
-        return this.domain.size();
+        return this.sorts.length;
     }
     
     /**
@@ -82,7 +137,15 @@ public final class Domain {
      * @return the multiplicity of the getSort; 0 if the getSort is not mapped
      */
     public int mult (Sort sort) {
-        return this.domain.getOrDefault(sort, 0);
+        for (int i = 0; i < this.sorts.length; ++i)  // domains are small: a linear search is fine
+            if (this.sorts[i] == sort)
+                return this.mults[i];
+        
+        for (int i = 0; i < this.sorts.length; ++i) 
+            if (this.sorts[i].equals(sort))
+                return this.mults[i];
+        
+        return 0;
     }
     
     /**
@@ -91,7 +154,7 @@ public final class Domain {
      * @return the corresponding getSort; <tt>null</tt> if no getSort with that name is mapped
      */
     public Sort getSort (String sortname) {
-        for ( Sort s : this.domain.keySet() ) 
+        for ( Sort s : this.sorts ) 
             if (s.name().equals(sortname))
                 return s;
         
@@ -112,10 +175,12 @@ public final class Domain {
     public Domain set(Sort s, int mult) {
          if (mult == 0) {
              throw new IllegalDomain("zero multiplicity!");
+         } else if (mult(s) == mult) {
+            return this;
          } else {
-            HashMap<Sort, Integer> copy = new HashMap<>(this.domain);
+            HashMap<Sort, Integer> copy = new HashMap<>(asMap());
             copy.put(s, mult);
-            return new Domain(copy);
+            return factory(copy);
          }
     }
        
@@ -130,39 +195,51 @@ public final class Domain {
             return this;
         else {
             HashMap<Sort,Integer > copy = new HashMap<>();
-            this.domain.entrySet().forEach (e -> {
-                Sort k = e.getKey(), v = sort_map.get(k); //old and new sort
-                copy.put(v != null ? v : k, e.getValue());
-            });
+            for (int i = 0; i < this.sorts.length; ++i) {
+                Sort k = this.sorts[i], v = sort_map.get(k); //old and new sort
+                copy.put(v != null ? v : k, this.mults[i]);
+            }
 
-            return new Domain(copy);
+            return factory(copy);
         }
     }
     
+    /**
+     * domains are unique (@see factory), so they are compared by identity
+     */
     @Override
     public boolean equals (Object o) {
-        return this == o || o instanceof Domain && ((Domain)o).domain.equals(this.domain);
+        return this == o;
     }
 
     @Override
     public int hashCode() {
-        return 59 + Objects.hashCode(this.domain);
+        return this.hash;
     }
     
    
     /** 
-     * @return a map-view of this domain 
+     * @return a (read-only) map-view of this domain, iterated in natural order
      */
-    public Map<? extends Sort,Integer> asMap() {
-        return this.domain;
+    public Map<Sort,Integer> asMap() {
+        Map<Sort,Integer> m = this.map;
+        if (m == null) {
+            final Map<Sort,Integer> lm = new LinkedHashMap<>();
+            for (int i = 0; i < this.sorts.length; ++i) 
+                lm.put(this.sorts[i], this.mults[i]);
+            this.map = m = Collections.unmodifiableMap(lm);
+        }
+        
+        return m;
     }
             
     @Override
     public String toString() {
-       if (this.string == null)
-           this.string = new TreeMap<>(this.domain).toString();
+       String s = this.string;
+       if (s == null)
+           this.string = s = asMap().toString(); // sorted
        
-       return this.string;
+       return s;
     }
     
     /**
@@ -171,7 +248,8 @@ public final class Domain {
      */
     public StringBuilder names() {
         StringBuilder s = new StringBuilder("@");
-        new TreeMap<>(this.domain).entrySet().forEach( x -> { s.append(x.getKey().name()).append('^').append(x.getValue()).append(','); });
+        for (int i = 0; i < this.sorts.length; ++i) 
+            s.append(this.sorts[i].name()).append('^').append(this.mults[i]).append(',');
         s.deleteCharAt(s.length()-1);
         
         return s;
@@ -186,12 +264,12 @@ public final class Domain {
      */
     public Domain restriction(Set<? extends Sort> r) {
         HashMap<Sort,Integer> sm = new HashMap<>();
-        for (Entry<Sort, Integer> x : this.domain.entrySet()) {
-            if (!r.contains(x.getKey())) {
-                sm.put(x.getKey(), x.getValue());
+        for (int i = 0; i < this.sorts.length; ++i) {
+            if (!r.contains(this.sorts[i])) {
+                sm.put(this.sorts[i], this.mults[i]);
             } 
         }
-        return new Domain(sm);
+        return factory(sm);
     }
             
 }
\ No newline at end of file
@@ -42,15 +42,7 @@ public interface Expression {
             partialres = simpterm;
             simpterm = partialres.genSimplify().specSimplify();
             //System.out.println(simpterm);
-            long endTime = System.currentTimeMillis() - startTime;
-            if (endTime > 50000) {
-                //LogicalExprs.print = true;
-                System.out.println(">>>>>>\n"+startexpr+">>>>>>\nnormalization time > 100 sec\n"); 
-                //Util.getChar();
-                //System.out.println(simpterm);
-                //System.exit(1);
-                //break;
-            }
+            NormalizationBudget.check(startexpr, System.currentTimeMillis() - startTime);
         }   
         simpterm.setSimplified(true);
         
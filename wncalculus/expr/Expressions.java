@@ -9,6 +9,73 @@ import util.Util;
  * @author Lorenzo Capra
  */
 public class Expressions {
+    
+    /**
+     * a canonical total order on expressions, that doesn't vary between runs
+     * (hash-codes of expressions don't depend on identities): expressions are compared
+     * by hash-code, then by type, then by textual form; it is used to keep the operands
+     * of n-ary operators sorted, so that identical inputs give identical outputs
+     */
+    public static final Comparator<Object> CANONICAL = Comparator.comparingInt(Object::hashCode)
+            .thenComparing(o -> o.getClass().getName()).thenComparing(Object::toString);
+    
+    /**
+     * @param <E> the type of elements
+     * @param c a set
+     * @return an unmodifiable copy of the set, whose iteration order
+     * is the canonical one (@see CANONICAL)
+     */
+    public static <E> Set<E> canonicalSet(Set<? extends E> c) {
+        return new CanonicalSet<>(new HashSet<>(c));
+    }
+    
+    /*
+    an unmodifiable set, iterated in the canonical order: the elements are sorted
+    (once) on the first iteration, so that building operators, and membership tests,
+    equality and hash-code (e.g., on interning) don't pay for sorting
+    */
+    private static final class CanonicalSet<E> extends AbstractSet<E> {
+        
+        private final Set<? extends E> set;
+        private volatile List<E> sorted; // caching
+        
+        CanonicalSet(Set<? extends E> set) {
+            this.set = set;
+        }
+        
+        @Override
+        public Iterator<E> iterator() {
+            List<E> l = this.sorted;
+            if (l == null) {
+                l = new ArrayList<>(this.set);
+                if (l.size() > 1)
+                    l.sort(CANONICAL);
+                this.sorted = l = Collections.unmodifiableList(l);
+            }
+            
+            return l.iterator();
+        }
+        
+        @Override
+        public int size() {
+            return this.set.size();
+        }
+        
+        @Override
+        public boolean contains(Object o) {
+            return this.set.contains(o);
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            return o == this || o instanceof Set<?> s && this.set.equals(s instanceof CanonicalSet<?> c ? c.set : s);
+        }
+        
+        @Override
+        public int hashCode() {
+            return this.set.hashCode();
+        }
+    }
           
     /**
      * simplifies a list of expressions (preserving the order) operating in a destructive way:
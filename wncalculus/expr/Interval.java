@@ -1,5 +1,7 @@
 package expr;
 
+import util.InternTable;
+
 /**
  * this class defines possibly unbounded positive integer intervals; the "empty"
  * interval is [0,0] intervals are implemented as "data-objects"
@@ -7,6 +9,18 @@ package expr;
 public final class Interval implements Comparable<Interval> {
 
     private final int lb, ub;//interval bounds
+    
+    private static final int SMALL = 16; // the bound of flyweights
+    private static final Interval[][] FLYWEIGHTS = new Interval[SMALL][SMALL + 1]; // [lb][ub + 1], [lb][0] is unbounded
+    private static final InternTable<Long, Interval> VALUES = new InternTable<>("Interval");
+    
+    static {
+        for (int lb = 0; lb < SMALL; lb++) {
+            FLYWEIGHTS[lb][0] = new Interval(lb);
+            for (int ub = lb; ub < SMALL; ub++)
+                FLYWEIGHTS[lb][ub + 1] = new Interval(lb, ub);
+        }
+    }
 
     /**
      * creates a bounded interval
@@ -100,8 +114,45 @@ public final class Interval implements Comparable<Interval> {
         return unbounded() ? -1 : this.ub - this.lb + 1;
     }
 
+    /**
+     * builder method for bounded intervals: intervals with small bounds are shared flyweights,
+     * the others are interned
+     * @param lb the interval's lower bound
+     * @param ub the interval's upper bound
+     * @return the (unique) interval with the given bounds
+     * @throws IllegalArgumentException if the bounds are not correct
+     */
+    public static Interval factory(int lb, int ub) {
+        if (lb < 0 || lb > ub) 
+            throw new IllegalArgumentException("incorrect bounds: " + lb + ',' + ub);
+        
+        if (ub < SMALL)
+            return FLYWEIGHTS[lb][ub + 1];
+        
+        return VALUES.intern((long) lb << 32 | ub, () -> new Interval(lb, ub));
+    }
+    
+    /**
+     * builder method for (superiorly) unbounded intervals
+     * @param lb the interval's lower bound
+     * @return the (unique) unbounded interval with the given lower bound
+     * @throws IllegalArgumentException if the bound is negative
+     */
+    public static Interval factory(int lb) {
+        if (lb < 0) 
+            throw new IllegalArgumentException("incorrect interval bounds!");
+        
+        if (lb < SMALL)
+            return FLYWEIGHTS[lb][0];
+        
+        return VALUES.intern((long) lb << 32 | 0xFFFFFFFFL, () -> new Interval(lb));
+    }
+    
     @Override
     public boolean equals(Object other) {
+        if (this == other)
+            return true;
+        
         if (other instanceof Interval interval) {
             return interval.lb == this.lb && this.ub == interval.ub;
         }
@@ -130,9 +181,9 @@ public final class Interval implements Comparable<Interval> {
         } else {
             int newlb = Math.max(this.lb, other.lb);
             if (unbounded() && other.unbounded()) {
-                return new Interval(newlb);
+                return factory(newlb);
             }
-            return new Interval(newlb, this.unbounded() ? other.ub : (other.unbounded() ? this.ub : Math.min(this.ub, other.ub)));
+            return factory(newlb, this.unbounded() ? other.ub : (other.unbounded() ? this.ub : Math.min(this.ub, other.ub)));
         }
     }
 
@@ -143,7 +194,7 @@ public final class Interval implements Comparable<Interval> {
      * @return the bound-wise sum between this and interval
      */
     public Interval sum(Interval other) {
-        return unbounded() || other.unbounded() ? new Interval(lb + other.lb) : new Interval(lb + other.lb, ub + other.ub);
+        return unbounded() || other.unbounded() ? factory(lb + other.lb) : factory(lb + other.lb, ub + other.ub);
     }
 
     /**
@@ -160,7 +211,7 @@ public final class Interval implements Comparable<Interval> {
                 return new Interval[0];
             } else { // delim <= ub - lb
                 final int nb = delim + this.lb; // split point
-                return new Interval[]{new Interval(this.lb, nb - 1), unbounded() ? new Interval(nb) : new Interval(nb, this.ub)};
+                return new Interval[]{factory(this.lb, nb - 1), unbounded() ? factory(nb) : factory(nb, this.ub)};
             }
         }
         throw new IllegalArgumentException("negative offset");
@@ -199,7 +250,7 @@ public final class Interval implements Comparable<Interval> {
      */
     public Interval merge(Interval other) {
         if (other.lb == this.ub + 1) {
-            return other.unbounded() ? new Interval(this.lb) : new Interval(this.lb, other.ub);
+            return other.unbounded() ? factory(this.lb) : factory(this.lb, other.ub);
         }
         return null;
     }
@@ -30,13 +30,22 @@ public interface N_aryOp<E extends ParametricExpr> extends MultiArgs<E,E>  {
         boolean changed = argscopy != null;
         if (! changed )      
            argscopy = Util.copy( getArgs() );
-        if (Expressions.normalize(argscopy) || argscopy.size() > 1 && argscopy.removeAll(Collections.singleton(getIde()) ) )
+        if (normalizeArgs(argscopy) || argscopy.size() > 1 && argscopy.removeAll(Collections.singleton(getIde()) ) )
             changed = true;
         //System.out.println("(NaryOpOp) --->\n"+argscopy+norm);//debug*/
         return changed ? argscopy.isEmpty() ? getIde() : buildOp(argscopy) : cast() ;
     }
     
               
+     /**
+      * normalizes (a copy of) the operands of <code>this</code> operator, in a destructive way
+      * @param args the operands
+      * @return <code>true</code> if and only if the operands have been changed
+      */
+     default boolean normalizeArgs (Collection<E> args) {
+         return Expressions.normalize(args);
+     }
+     
      /**
       * distribute <code>this</code> operator over a nested one of a given type
       * (it works also if nested is not actually present in the operands)
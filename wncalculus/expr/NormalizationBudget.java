@@ -0,0 +1,94 @@
+package expr;
+
+import java.util.function.Supplier;
+
+/**
+ * this class manages the time budget of normalizations: by default, exceeding
+ * the budget only gives a warning; a (batch) job may instead run within a
+ * bounded budget, in which case any normalization taking place in the job's thread
+ * after the deadline raises a <code>NormalizationTimeout</code>
+ * @author Lorenzo Capra
+ */
+public final class NormalizationBudget {
+
+    /** the default budget (in ms), beyond which a warning is given */
+    public static final long DEFAULT = 50000;
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>(); // absolute, in ms
+
+    private NormalizationBudget() {}
+
+    /**
+     * runs a job within a given time budget
+     * @param <T> the type of the result
+     * @param ms the budget, in ms
+     * @param job a job
+     * @return the job's result
+     * @throws NormalizationTimeout if a normalization done by the job exceeds the budget
+     */
+    public static <T> T within(long ms, Supplier<? extends T> job) {
+        if (ms <= 0)
+            throw new IllegalArgumentException("non-positive budget: "+ms);
+
+        final Long prev = DEADLINE.get();
+        DEADLINE.set(System.currentTimeMillis() + ms);
+        try {
+            return job.get();
+        }
+        finally {
+            if (prev == null)
+                DEADLINE.remove();
+            else
+                DEADLINE.set(prev);
+        }
+    }
+
+    /**
+     * @return the (absolute) deadline of the job running in the current thread;
+     * <code>null</code> if there is no one
+     */
+    static Long deadline() {
+        return DEADLINE.get();
+    }
+
+    /**
+     * runs a piece of a job (e.g., in a worker thread) with the job's deadline
+     * @param <T> the type of the result
+     * @param deadline the job's (absolute) deadline, <code>null</code> meaning no deadline
+     * @param task a task
+     * @return the task's result
+     */
+    static <T> T until(Long deadline, Supplier<? extends T> task) {
+        final Long prev = DEADLINE.get();
+        if (deadline == null)
+            DEADLINE.remove();
+        else
+            DEADLINE.set(deadline);
+        try {
+            return task.get();
+        }
+        finally {
+            if (prev == null)
+                DEADLINE.remove();
+            else
+                DEADLINE.set(prev);
+        }
+    }
+
+    /**
+     * checks the budget of a normalization (called at each step)
+     * @param start the normalization's starting expression
+     * @param elapsed the time elapsed since the normalization started, in ms
+     * @throws NormalizationTimeout if the current thread runs a bounded job whose
+     * deadline has expired
+     */
+    static void check(Expression start, long elapsed) {
+        final Long deadline = DEADLINE.get();
+        if (deadline != null) {
+            if (System.currentTimeMillis() > deadline)
+                throw new NormalizationTimeout("normalization budget exceeded (" + elapsed + " ms): " + start);
+        }
+        else if (elapsed > DEFAULT)
+            System.out.println(">>>>>>\n"+start+">>>>>>\nnormalization time > 100 sec\n");
+    }
+}
@@ -0,0 +1,28 @@
+package expr;
+
+/**
+ *
+ * @author Lorenzo Capra
+ * this exception is raised whenever the normalization of an expression
+ * exceeds the time budget of the (batch) job it belongs to
+ */
+public class NormalizationTimeout extends RuntimeException  {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String msg;
+
+    /**
+     * creates an exception with an associate message
+     * @param msg the message to prompt
+     */
+    public NormalizationTimeout(String msg) {
+        this.msg = msg;
+    }
+
+    @Override
+    public String toString() {
+        return msg;
+    }
+
+}
@@ -0,0 +1,158 @@
+package expr;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+import util.Session;
+
+/**
+ * this class manages the (opt-in) parallel normalization of the operands of
+ * n-ary operators (e.g., the sums of tuples resulting from expansions, that may
+ * have hundreds of independent operands): when enabled, the operands of collections
+ * whose size reaches a threshold are normalized on a fork-join pool;
+ * the workers share the session of the calling thread (@see Session), i.e., its
+ * thread-safe interning tables, and its normalization deadline (@see NormalizationBudget);
+ * the result is the same as that of the sequential normalization
+ * (@see Expressions.normalize), in particular the order of operands
+ * @author Lorenzo Capra
+ */
+public final class ParallelNormalization {
+
+    /** the default threshold (number of operands) */
+    public static final int DEFAULT_THRESHOLD = 64;
+    private static final int GRAIN = 4; // the number of operands normalized by a leaf task
+
+    private static volatile int threshold; // 0 means disabled (default)
+    private static volatile ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    private ParallelNormalization() {}
+
+    /**
+     * enables the parallel normalization, on the common fork-join pool
+     * @param min the minimum number of operands for which normalization is done in parallel
+     * @throws IllegalArgumentException if the threshold is less than 2
+     */
+    public static void enable(int min) {
+        enable(min, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * enables the parallel normalization
+     * @param min the minimum number of operands for which normalization is done in parallel
+     * @param fjpool the fork-join pool to be used
+     * @throws IllegalArgumentException if the threshold is less than 2
+     */
+    public static void enable(int min, ForkJoinPool fjpool) {
+        if (min < 2)
+            throw new IllegalArgumentException("threshold less than 2: "+min);
+
+        pool = Objects.requireNonNull(fjpool);
+        threshold = min;
+    }
+
+    /**
+     * disables the parallel normalization (the default)
+     */
+    public static void disable() {
+        threshold = 0;
+    }
+
+    /**
+     * @return <code>true</code> if and only if the parallel normalization is enabled
+     */
+    public static boolean isEnabled() {
+        return threshold > 0;
+    }
+
+    /**
+     * @return the current threshold; 0 if the parallel normalization is disabled
+     */
+    public static int threshold() {
+        return threshold;
+    }
+
+    /*
+    runs a task on a range of indices, in parallel
+    */
+    private static final class Chunk extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient IntConsumer task; // chunks are never serialized
+        private final int from, to;
+        private final transient Session session;
+        private final Long deadline;
+
+        Chunk(IntConsumer task, int from, int to, Session session, Long deadline) {
+            this.task = task;
+            this.from = from;
+            this.to = to;
+            this.session = session;
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= GRAIN) {
+                this.session.call(() -> NormalizationBudget.until(this.deadline, () -> {
+                    for (int i = this.from; i < this.to; i++)
+                        this.task.accept(i);
+                    return null;
+                }));
+            }
+            else {
+                final int mid = this.from + this.to >>> 1;
+                invokeAll(new Chunk(this.task, this.from, mid, this.session, this.deadline),
+                          new Chunk(this.task, mid, this.to, this.session, this.deadline));
+            }
+        }
+    }
+
+    /**
+     * runs a task on each index of the range [0, n), in parallel on the pool in use
+     * (even if the parallel normalization is disabled); the workers share the session
+     * and the normalization deadline of the calling thread;
+     * the task must be thread-safe
+     * @param n the size of the range
+     * @param task the task
+     * @throws NormalizationTimeout if the task exceeds the deadline of the calling thread
+     */
+    public static void forEach(int n, IntConsumer task) {
+        if (n > 0)
+            pool.invoke(new Chunk(task, 0, n, Session.current(), NormalizationBudget.deadline()));
+    }
+
+    /**
+     * simplifies a collection of expressions, operating in a destructive way,
+     * in parallel if enabled and the collection is large enough
+     * (@see Expressions.normalize)
+     * @param <E> the expressions domain
+     * @param arglist the collection of expressions
+     * @return <code>true</code> if and only if the collection has been changed
+     * @throws NormalizationTimeout if the normalization of any operand exceeds
+     * the deadline of the calling thread
+     */
+    public static <E extends Expression> boolean normalize(Collection<E> arglist) {
+        final int min = threshold;
+        if (min == 0 || arglist.size() < min)
+            return Expressions.normalize(arglist);
+
+        final Expression[] args = arglist.toArray(new Expression[arglist.size()]), normals = new Expression[args.length];
+        forEach(args.length, i -> { normals[i] = args[i].normalize(); });
+        boolean normalized = false;
+        final List<E> nargs = new ArrayList<>();
+        final Iterator<E> ite = arglist.iterator();
+        for (int i = 0; i < args.length; i++) { // the same order as the sequential version
+            ite.next();
+            if (!args[i].equals(normals[i])) {
+                ite.remove();
+                nargs.add(normals[i].cast());
+                normalized = true;
+            }
+        }
+        arglist.addAll(nargs);
+
+        return normalized;
+    }
+}
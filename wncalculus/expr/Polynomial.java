@@ -0,0 +1,260 @@
+package expr;
+
+import java.util.*;
+import java.util.function.ToIntFunction;
+
+/**
+ * this class defines (immutable) multivariate polynomials with integer coefficients,
+ * whose variables are the (parametric) sizes of sorts; it is used to express
+ * the cardinality of terms symbolically, so that it can be evaluated (in constant time)
+ * for any admissible size of sorts, e.g., the lower bounds of their constraints;
+ * a monomial is a map from sorts to (positive) exponents, the empty map being
+ * the constant monomial; arithmetic is exact (an <code>ArithmeticException</code> is
+ * raised in the event of overflow)
+ * @author Lorenzo Capra
+ */
+public final class Polynomial {
+
+    /** the null polynomial */
+    public static final Polynomial ZERO = new Polynomial(Collections.emptyMap());
+    /** the constant polynomial 1 */
+    public static final Polynomial ONE  = new Polynomial(Collections.singletonMap(Collections.emptySortedMap(), 1L));
+
+    private final Map<SortedMap<Sort, Integer>, Long> terms; // monomial -> (non-null) coefficient
+    private final int hash;
+
+    private Polynomial(Map<SortedMap<Sort, Integer>, Long> terms) {
+        this.terms = terms;
+        this.hash  = terms.hashCode();
+    }
+
+    /*
+    builds a polynomial from a (mutable) map, discarding null coefficients
+    */
+    private static Polynomial build(Map<SortedMap<Sort, Integer>, Long> m) {
+        m.values().removeIf(c -> c == 0);
+        if (m.isEmpty())
+            return ZERO;
+
+        return new Polynomial(Collections.unmodifiableMap(m));
+    }
+
+    /**
+     * @param c an integer
+     * @return the constant polynomial <code>c</code>
+     */
+    public static Polynomial constant(long c) {
+        return c == 0 ? ZERO : c == 1 ? ONE : new Polynomial(Collections.singletonMap(Collections.emptySortedMap(), c));
+    }
+
+    /**
+     * @param s a sort
+     * @return the polynomial corresponding to the (parametric) size of <code>s</code>
+     */
+    public static Polynomial variable(Sort s) {
+        return new Polynomial(Collections.singletonMap(Collections.unmodifiableSortedMap(new TreeMap<>(Collections.singletonMap(s, 1))), 1L));
+    }
+
+    /**
+     * evaluates an univariate polynomial (in Horner's form) over a polynomial
+     * @param coeffs the coefficients of an univariate polynomial, the i-th one
+     * being that of degree i
+     * @param x a polynomial
+     * @return the polynomial obtained by replacing the variable with <code>x</code>
+     */
+    public static Polynomial substitute(long[] coeffs, Polynomial x) {
+        Polynomial res = ZERO;
+        for (int i = coeffs.length - 1; i >= 0; i--)
+            res = res.times(x).plus(constant(coeffs[i]));
+
+        return res;
+    }
+
+    /**
+     * @return <code>true</code> if and only if <code>this</code> polynomial is constant
+     */
+    public boolean isConstant() {
+        return this.terms.isEmpty() || this.terms.size() == 1 && this.terms.containsKey(Collections.emptySortedMap());
+    }
+
+    /**
+     * @return the set of sorts occurring in <code>this</code> polynomial
+     */
+    public Set<Sort> variables() {
+        final Set<Sort> vars = new TreeSet<>();
+        this.terms.keySet().forEach(m -> { vars.addAll(m.keySet()); });
+
+        return vars;
+    }
+
+    /**
+     * @param p a polynomial
+     * @return the sum of <code>this</code> and <code>p</code>
+     */
+    public Polynomial plus(Polynomial p) {
+        if (p.terms.isEmpty())
+            return this;
+        if (this.terms.isEmpty())
+            return p;
+
+        final Map<SortedMap<Sort, Integer>, Long> m = new HashMap<>(this.terms);
+        p.terms.forEach((k, c) -> { m.merge(k, c, Math::addExact); });
+
+        return build(m);
+    }
+
+    /**
+     * @param p a polynomial
+     * @return the difference between <code>this</code> and <code>p</code>
+     */
+    public Polynomial minus(Polynomial p) {
+        return plus(p.times(constant(-1)));
+    }
+
+    /**
+     * @param p a polynomial
+     * @return the product of <code>this</code> and <code>p</code>
+     */
+    public Polynomial times(Polynomial p) {
+        if (p == ONE)
+            return this;
+        if (this == ONE)
+            return p;
+
+        final Map<SortedMap<Sort, Integer>, Long> m = new HashMap<>();
+        for (Map.Entry<SortedMap<Sort, Integer>, Long> x : this.terms.entrySet())
+            for (Map.Entry<SortedMap<Sort, Integer>, Long> y : p.terms.entrySet()) {
+                final SortedMap<Sort, Integer> xy = new TreeMap<>(x.getKey());
+                y.getKey().forEach((s, e) -> { xy.merge(s, e, Integer::sum); });
+                m.merge(Collections.unmodifiableSortedMap(xy), Math.multiplyExact(x.getValue(), y.getValue()), Math::addExact);
+            }
+
+        return build(m);
+    }
+
+    /**
+     * evaluates <code>this</code> polynomial
+     * @param size the function assigning a size to each sort
+     * @return the value of <code>this</code> polynomial
+     * @throws ArithmeticException in the event of overflow
+     */
+    public long evaluate(ToIntFunction<? super Sort> size) {
+        long res = 0;
+        for (Map.Entry<SortedMap<Sort, Integer>, Long> t : this.terms.entrySet()) {
+            long v = t.getValue();
+            for (Map.Entry<Sort, Integer> x : t.getKey().entrySet()) {
+                final int n = size.applyAsInt(x.getKey());
+                for (int e = x.getValue(); e > 0; e--)
+                    v = Math.multiplyExact(v, n);
+            }
+            res = Math.addExact(res, v);
+        }
+
+        return res;
+    }
+
+    /**
+     * evaluates <code>this</code> polynomial for given sizes of sorts
+     * @param sizes the map between sorts and their sizes
+     * @return the value of <code>this</code> polynomial
+     * @throws IllegalArgumentException if the size of any variable is missing,
+     * or doesn't fit the sort's constraint
+     */
+    public long evaluate(Map<? extends Sort, Integer> sizes) {
+        return evaluate(s -> {
+            final Integer n = sizes.get(s);
+            if (n == null)
+                throw new IllegalArgumentException("missing size of "+s.name());
+
+            final Interval c = s.card();
+            if (n < c.lb() || !c.unbounded() && n > c.ub())
+                throw new IllegalArgumentException("the size of "+s.name()+" doesn't fit its constraint: "+n);
+
+            return n;
+        });
+    }
+
+    /**
+     * @return the value of <code>this</code> polynomial for the lower bounds of
+     * sorts' constraints
+     */
+    public long lb() {
+        return evaluate(Sort::lb);
+    }
+
+    /**
+     * @param split_map a map between sorts
+     * @return the polynomial obtained by renaming the variables of <code>this</code>
+     * according to the map (the sorts which are not mapped are left unchanged)
+     */
+    public Polynomial rename(Map<? extends Sort, ? extends Sort> split_map) {
+        boolean changed = false;
+        for (Sort s : variables())
+            if (split_map.get(s) != null) {
+                changed = true;
+                break;
+            }
+        if (!changed)
+            return this;
+
+        final Map<SortedMap<Sort, Integer>, Long> m = new HashMap<>();
+        this.terms.forEach((k, c) -> {
+            final SortedMap<Sort, Integer> nk = new TreeMap<>();
+            k.forEach((s, e) -> { nk.merge(split_map.get(s) == null ? s : split_map.get(s), e, Integer::sum); });
+            m.merge(Collections.unmodifiableSortedMap(nk), c, Math::addExact);
+        });
+
+        return build(m);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Polynomial && this.hash == ((Polynomial) o).hash && this.terms.equals(((Polynomial) o).terms);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    private static int degree(SortedMap<Sort, Integer> m) {
+        int d = 0;
+        for (int e : m.values())
+            d += e;
+
+        return d;
+    }
+
+    private static String toString(SortedMap<Sort, Integer> m) {
+        final StringBuilder sb = new StringBuilder();
+        m.forEach((s, e) -> { sb.append(s.name()).append(e > 1 ? "^" + e : ""); });
+
+        return sb.toString();
+    }
+
+    /**
+     * @return a textual representation of <code>this</code> polynomial, with monomials
+     * sorted by decreasing degree (e.g., "C^2 - 3C + 2")
+     */
+    @Override
+    public String toString() {
+        if (this.terms.isEmpty())
+            return "0";
+
+        final List<SortedMap<Sort, Integer>> monomials = new ArrayList<>(this.terms.keySet());
+        monomials.sort(Comparator.comparingInt((SortedMap<Sort, Integer> m) -> -degree(m)).thenComparing(Polynomial::toString));
+        final StringBuilder sb = new StringBuilder();
+        for (SortedMap<Sort, Integer> m : monomials) {
+            final long c = this.terms.get(m);
+            final String mon = toString(m);
+            if (sb.length() == 0)
+                sb.append(c < 0 ? "-" : "");
+            else
+                sb.append(c < 0 ? " - " : " + ");
+            final long a = Math.abs(c);
+            sb.append(a != 1 || mon.isEmpty() ? a : "").append(mon);
+        }
+
+        return sb.toString();
+    }
+}
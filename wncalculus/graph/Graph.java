@@ -12,10 +12,11 @@ public class Graph<E> {
     private final Map<E, HashSet<E>>  adjlist ; // the adjacency list of the graph
     
     
-    // hashing fields
-    private Integer chromaticNumber; // the chromatic number
-    private Collection<HashSet<E>> cliques; //auxiliary variable storing the cliques of the graph
-    private Set<HashSet<E>> connected; //the connected components
+    // hashing fields (built before being published)
+    private volatile Integer chromaticNumber; // the chromatic number
+    private volatile Collection<HashSet<E>> cliques; //auxiliary variable storing the cliques of the graph
+    private volatile Set<HashSet<E>> connected; //the connected components
+    private volatile long[] chromCoeffs; // the coefficients of the chromatic polynomial
     
     /**
      * builds an empty graph
@@ -30,6 +31,8 @@ public class Graph<E> {
     private void reset() {
         this.chromaticNumber = null;
         this.cliques = null;
+        this.connected = null;
+        this.chromCoeffs = null;
     }
     
     
@@ -202,15 +205,16 @@ public class Graph<E> {
      * @return a Collection of cliques (represented as set of vertices)
      */
     public Collection<? extends Set<? extends E>> getMaxCliques() {
-        if (this.cliques == null) {
-            this.cliques = new HashSet<>();
-            findCliques(new HashSet<>(), new HashSet<>( vertexSet() ), new HashSet<>());
+        Collection<HashSet<E>> cl = this.cliques;
+        if (cl == null) {
+            findCliques(new HashSet<>(), new HashSet<>( vertexSet() ), new HashSet<>(), cl = new HashSet<>());
+            this.cliques = cl;
         }
         
-        return this.cliques;
+        return cl;
     }
         
-    private void findCliques(Set<E> potential_clique, Set<? extends E> candidates, Set<E> already_found) {
+    private void findCliques(Set<E> potential_clique, Set<? extends E> candidates, Set<E> already_found, Collection<HashSet<E>> cliques) {
         Set<E> candidates_array = new HashSet<>(candidates); 
         if (!end(candidates, already_found)) {
             candidates_array.stream().map( candidate -> {
@@ -231,9 +235,9 @@ public class Graph<E> {
                 });
                 // if new_candidates and new_already_found are empty
                 if (new_candidates.isEmpty() && new_already_found.isEmpty()) 
-                    this.cliques.add(new HashSet<>(potential_clique)); // potential_clique is maximal_clique
+                    cliques.add(new HashSet<>(potential_clique)); // potential_clique is maximal_clique
                 else 
-                    findCliques(potential_clique, new_candidates, new_already_found); // recursive call
+                    findCliques(potential_clique, new_candidates, new_already_found, cliques); // recursive call
                 // move candidate_node from potential_clique to already_found;
                 already_found.add(candidate);
                 return candidate;
@@ -285,9 +289,10 @@ public class Graph<E> {
         if (size == 2)  //optimization
             return 2;
         
-        if (this.chromaticNumber == null) { //caching
+        Integer chi = this.chromaticNumber;
+        if (chi == null) { //caching
             if (isClique()) ////optimization
-                this.chromaticNumber = size;
+                chi = size;
             else {
                 int psetcard = powerSetCard();
                 int [] X = new int[psetcard];
@@ -306,11 +311,12 @@ public class Graph<E> {
                         X[S] = Math.min(X[S], X[subSetIndex(S_minus_I)] + 1);
                     }
                 }
-                this.chromaticNumber = X[psetcard - 1];
+                chi = X[psetcard - 1];
             }
+            this.chromaticNumber = chi;
         }
         //System.out.println("X of "+this+" "+this.chromaticNumber); //debug
-        return this.chromaticNumber;
+        return chi;
     } 
            
      /**
@@ -443,6 +449,37 @@ public class Graph<E> {
         return Math.addExact(glue(v,u).chromPolynomial(lambda), add(v,u).chromPolynomial(lambda));
     }
     
+    /**
+     * computes the coefficients of the chromatic polynomial of <code>this</code> graph
+     * (in the same recursive way as <code>chromPolynomial</code>), so that it can be
+     * evaluated for any lambda, or a parametric one
+     * @return the coefficients of the chromatic polynomial, the i-th one being that of degree i
+     * @throws ArithmeticException in the event of overflow
+     */
+    public long[] chromCoefficients () {
+        long[] c = this.chromCoeffs;
+        if (c == null) {
+            E v, u = null;
+            if ((v = getNotComplete()) == null)
+                c = lambda_K(order()); //the chromatic polynomial of K_{(g.size)}
+            else {
+                Set<? extends E> adjv = adjiacent(v);
+                for (E x : vertexSet())
+                    if (! (x.equals(v) || adjv.contains(x) ) ) {
+                        u = x;
+                        break;
+                    }
+                final long[] c1 = glue(v,u).chromCoefficients(), c2 = add(v,u).chromCoefficients();
+                c = Arrays.copyOf(c1, Math.max(c1.length, c2.length));
+                for (int i = 0; i < c2.length; i++)
+                    c[i] = Math.addExact(c[i], c2[i]);
+            }
+            this.chromCoeffs = c;
+        }
+        
+        return c.clone();
+    }
+    
     /**
      * indirectly checks whether <code>this</code> graph is (not) complete 
      * @return a reference to a non-completely connected vertex, if there is any;
@@ -458,6 +495,22 @@ public class Graph<E> {
         return null; // the graph is complete
     }
     
+    /**
+     * computes the coefficients of the chromatic polynomial of a order-i complete graph,
+     * i.e., the falling factorial lambda(lambda-1)..(lambda-i+1)
+     * @param i the order of a complete graph
+     * @return the coefficients of the chromatic polynomial, the j-th one being that of degree j
+     */
+    private static long[] lambda_K(int i) {
+        long[] c = new long[i + 1];
+        c[0] = 1;
+        for (int k = 0; k < i; k++) // multiplies by (lambda - k)
+            for (int j = k + 1; j >= 0; j--)
+                c[j] = Math.subtractExact(j > 0 ? c[j - 1] : 0, Math.multiplyExact(k, c[j]));
+        
+        return c;
+    }
+    
     /**
      * computes  the chromatic.polynomial value (for a given lambda) of a order-i complete graph
      * @param lambda a (assumed positive) value (number of colouring)
@@ -480,17 +533,19 @@ public class Graph<E> {
      * @return the set of connected components of g's vertices
      */
     public Set<HashSet<E>> connectedComponents () {
-    	if (this.connected == null) {
-    		this.connected = new HashSet<>();
+    	Set<HashSet<E>> conn = this.connected;
+    	if (conn == null) {
+    		final Set<HashSet<E>> cset = conn = new HashSet<>();
 	        Map<E,Boolean> visited = setAllNovisited ();
 	        vertexSet().stream().filter(v -> !visited.get(v)).map(v -> {
 	            HashSet<E> comp = new HashSet<>();
 	            DFSvisit(v, comp, visited);
 	            return comp;
-	        }).forEachOrdered( comp -> { this.connected.add(comp); });
+	        }).forEachOrdered( comp -> { cset.add(comp); });
+    	        this.connected = cset;
     	}
     	
-        return this.connected;
+        return conn;
     }
     
     /*
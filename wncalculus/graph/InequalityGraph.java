@@ -300,6 +300,24 @@ public final class InequalityGraph extends Graph<Projection> {
         return a;
     }
     
+    /**
+     * incrementally builds the graph of a larger set of inequalities, by adding
+     * the missing edges to a copy of <code>this</code> graph (the other is not modified)
+     * @param c the inequalities (of the same colour) to add
+     * @return the graph of the inequalities of <code>this</code> graph plus <code>c</code>
+     * @throws UnsupportedOperationException if the colour class is ordered (in that case,
+     * the graph depends on the order in which inequalities are added, so it must be rebuilt)
+     */
+    public InequalityGraph extend(Collection<? extends Equality> c) {
+        if (this.cc.isOrdered())
+            throw new UnsupportedOperationException("the inequality graph of an ordered class cannot be extended");
+
+        final InequalityGraph ext = clone();
+        c.forEach(ext::addIneq);
+
+        return ext;
+    }
+
     /**
      * 
      * @return a deep copy of <code>this</code> graph 
@@ -320,21 +338,23 @@ public final class InequalityGraph extends Graph<Projection> {
      * the maximal offset between successors (with the same index ?)
      */
     public int splitDelimiter(List<? extends SetFunction> l) {
-        if (this.delim == null) {
-            this.delim = isSimpleForm() ? 0 : succDelim(maxSuccOffset(vertexSet(), this.cc), this.cc);
-            if (this.delim == 0 && l != null) { //may we restrict to ordered classes?
+        Integer d = this.delim; // racy single-check (integers are immutable)
+        if (d == null) {
+            d = isSimpleForm() ? 0 : succDelim(maxSuccOffset(vertexSet(), this.cc), this.cc);
+            if (d == 0 && l != null) { //may we restrict to ordered classes?
                var ineqCard = ineqDomainCard(l);
                if (ineqCard == null) {
                    ineqCard = this.cc.card(); // if the variables "domains" cannot be computed we consider the "worst" case
                }
                final var X = chromaticNumber() - ineqCard.lb();
                if ( X  > 0) {
-                   this.delim = X;
+                   d = X;
                }
             }
+            this.delim = d;
         }
         //System.out.println("splitdelim di "+this+": "+delim);
-        return this.delim;
+        return d;
     }
     
     /**
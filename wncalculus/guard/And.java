@@ -29,7 +29,7 @@ public final class And  extends NaryGuardOperator implements AndOp<Guard>  {
         return g instanceof ElementaryGuard ? Collections.singleton(g) : ((And) g).getArgs();
     }
 
-    private Map<Color, InequalityGraph> igraph; // cashing: the (possibly empty) map between colors and corresponding inequality graphs
+    private volatile Map<Color, InequalityGraph> igraph; // cashing (safely published): the (possibly empty) map between colors and corresponding inequality graphs
     
     private And (Set<? extends Guard> guards, boolean check) {
         super(guards,/*check*/true);
@@ -123,8 +123,9 @@ public final class And  extends NaryGuardOperator implements AndOp<Guard>  {
      * an independent set
      */
     public Map<Color, InequalityGraph> igraph (boolean checkdom) {
-        if (this.igraph == null) {
-            this.igraph = new HashMap<>();
+        Map<Color, InequalityGraph> igm = this.igraph;
+        if (igm == null) {
+            final Map<Color, InequalityGraph> map = new HashMap<>(); // built before being published
             equalityMap().entrySet().forEach(e -> {
                 ColorClass cc = e.getKey();
                 SortedSet<Equality> inequalities = e.getValue().get(false);
@@ -136,12 +137,13 @@ public final class And  extends NaryGuardOperator implements AndOp<Guard>  {
                         if (sdom != null)
                             c = sdom;
                     }
-                    this.igraph.put(c, g);
+                    map.put(c, g);
                 }
             });
+            this.igraph = igm = Collections.unmodifiableMap(map);
         }
         //System.out.println("igraph di "+this +": "+this.igraph); //debug
-        return Collections.unmodifiableMap(this.igraph);
+        return igm;
     }
     
     /**
@@ -160,15 +162,17 @@ public final class And  extends NaryGuardOperator implements AndOp<Guard>  {
      * @return a singleton map from the color to the inequality graph
      */
     public Map<Color, InequalityGraph> igraph (ColorClass cc) {
-        if (this.igraph == null) {
+        Map<Color, InequalityGraph> igm = this.igraph;
+        if (igm == null) {
             SortedSet<Equality> inequalities = equalityMap().get(cc).get(false);
             if (! (inequalities == null || inequalities.isEmpty() ) )  
-                this.igraph =  Util.singleMap(cc, new InequalityGraph(inequalities ));
+                igm =  Util.singleMap(cc, new InequalityGraph(inequalities ));
             else
-                this.igraph = Collections.emptyMap();
+                igm = Collections.emptyMap();
+            this.igraph = igm;
         }
         //System.out.println("igraph di "+this +": "+this.igraph); //debug
-        return this.igraph;
+        return igm;
     }
     
     
@@ -182,19 +186,17 @@ public final class And  extends NaryGuardOperator implements AndOp<Guard>  {
      * <code>null</code> if for any reasons the check fails, or there are no memebership clauses
      */
     private SubclSet checkDomain (Set<? extends Projection> vset, ColorClass cc) {
-        final Map<Boolean, Set<Membership>> m = membMap().get(cc);
-        if (m != null) {
-            final Set<Membership> in    = m.getOrDefault(true,Collections.emptySortedSet()), 
-                                  notin = m.getOrDefault(false, Collections.emptySortedSet());
-            if ( notin.isEmpty() && ! in.isEmpty()) { // the notin list is empty
-                final Subcl v = Util.isConstantSurjective(Membership.mapSymbolsNoRep(in), vset);
-                if (v != null)
-                    return new SubclSet(v);
+        if (membMap().containsKey(cc)) {
+            final SubclMask mask = subclMask(cc);
+            final boolean in = mask.any(true), notin = mask.any(false);
+            final Set<Subcl> common;
+            if ( ! notin && in) { // the notin list is empty
+                if ((common = mask.commonSubclasses(vset, true)).size() == 1)
+                    return new SubclSet(common);
             }
-            else if ( in.isEmpty() && ! notin.isEmpty() ) { // the in list is empty
-                final Set<Subcl> sv = Util.isConstantSurjective(Membership.mapSymbols(notin), vset);
-                if (sv != null)
-                    return new SubclSet(sv);
+            else if ( ! in && notin ) { // the in list is empty
+                if (!(common = mask.commonSubclasses(vset, false)).isEmpty())
+                    return new SubclSet(common);
             }
         }
         
@@ -319,17 +321,20 @@ public final class And  extends NaryGuardOperator implements AndOp<Guard>  {
    /** 
      * removes redundant (in)equalities between symbols that refer to a singleton subclass
      * from an (assumed homogeneous!) list, by possibly adding the missing memberships
+     * @param arglist a list of guards
+     * @param eqmap the pre-computed (in)equality map
+     * @param mask the pre-computed subclass bitmask
      */
-   static boolean replaceRedEqWithMember(Set<Guard> arglist, Map <Boolean, SortedSet<Equality> > eqmap, Map<? extends Projection, Subcl > inmap) {
+   static boolean replaceRedEqWithMember(Set<Guard> arglist, Map <Boolean, SortedSet<Equality> > eqmap, SubclMask mask) {
        boolean changed = false;
        for (Map.Entry<Boolean, SortedSet<Equality>> entry : eqmap.entrySet()) {
            boolean sign = entry.getKey();
            for (Equality e : entry.getValue()) {
                Projection p1 = e.getArg1(), p2 = e.getArg2();
-               Subcl s = inmap.get(p1);
+               Subcl s = mask.subcl(p1);
                if (s != null && s.card().ub() == 1)  
                     changed = arglist.remove(e) | arglist.add(Membership.build(p2, s, sign, e.getDomain() ) );
-               else if ((s = inmap.get(p2)) != null && s.card().ub() == 1) 
+               else if ((s = mask.subcl(p2)) != null && s.card().ub() == 1) 
                     changed = arglist.remove(e) | arglist.add(Membership.build(p1, s, sign, e.getDomain() ) );
             }
        }
@@ -344,18 +349,13 @@ public final class And  extends NaryGuardOperator implements AndOp<Guard>  {
      * redundant inequalities are also removed from the corresponding list (optimization)
      * @param arglist a list of guards
      * @param ineqs the pre-compute list of inequalities 
-     * @param inmap the pre-computed "in" map
-     * @param notinmap the pre-computed "notin" map
+     * @param mask the pre-computed subclass bitmask
      */
-    static boolean removeRedundantIneq(Collection<Guard> arglist, Collection <Equality> ineqs, Map<? extends Projection, Subcl > inmap, Map<? extends Projection, Set<Subcl>> notinmap) {
+    static boolean removeRedundantIneq(Collection<Guard> arglist, Collection <Equality> ineqs, SubclMask mask) {
         boolean reduced = false;
         for (Iterator<Equality> it = ineqs.iterator(); it.hasNext();) {            
             Equality e = it.next();
-            Projection p1 = e.getArg1(),p2 = e.getArg2();
-            Subcl s1  = inmap.get( p1), s2   = inmap.get(p2);
-            if ( s1 != null && s2 != null && ! s1.equals(s2) || 
-                    notinmap.getOrDefault(p1, Collections.emptySet()).contains(s2) ||
-                    notinmap.getOrDefault(p2, Collections.emptySet()).contains(s1) ) {  // p1 and p2 refer to different subclasses
+            if ( mask.differentDom(e.getArg1(), e.getArg2()) ) {  // p1 and p2 refer to different subclasses
                 arglist.remove(e);
                 it.remove(); //optimization
                 reduced = true;
@@ -373,16 +373,16 @@ public final class And  extends NaryGuardOperator implements AndOp<Guard>  {
         assumes that redundant inequalities were already removed
         @return <code>true</code> if and only if any change is made 
     */
-    static boolean setVarSameDomain(Collection<Guard> arglist, Collection<? extends Equality> ineqs, Map<? extends Projection, Subcl > inmap, Map<? extends Projection, Set<Subcl>> notinmap) {
+    static boolean setVarSameDomain(Collection<Guard> arglist, Collection<? extends Equality> ineqs, SubclMask mask) {
         for (Equality e :   ineqs ) {            
             Projection p1 = e.getArg1(), p2 = e.getArg2(),   p = p2;
-            Subcl s1  = inmap.get( p1),  s2 = inmap.get(p2), s = s1;
+            Subcl s1  = mask.subcl( p1),  s2 = mask.subcl(p2), s = s1;
             Set<Guard> list1, list2, list3;
             Domain dom = e.getDomain();
             // we assume that s1 != null && s2 != null ==> s1 == s2  
             if ( s1 != null && s2 == null || s1 == null && (s = s2 ) != null &&  (p = p1) != null/*last redundant*/) { // p1 (p2) refers to a subclass C_1 (C_2), p2 (p1) doesn't (see the assumption ..): we logically add p2(1) in C_1(2) or p2(1) notin C_1(2)
                 list1 = new HashSet<>(arglist);
-                for (Subcl sx : notinmap.getOrDefault(p, Collections.emptySet())) // vengono rimosse da list1 tutte le eventuali clausole p notin ...
+                for (Subcl sx : mask.subclasses(p, false)) // vengono rimosse da list1 tutte le eventuali clausole p notin ...
                     list1.remove(Membership.build(p, sx, false, dom)); // optimization
                 list1.add(Membership.build(p, s, dom));
                 arglist.remove(e);
@@ -393,26 +393,21 @@ public final class And  extends NaryGuardOperator implements AndOp<Guard>  {
                 
                 return true;
             }
-            final Set<Subcl> notin1 = notinmap.getOrDefault(p1, Collections.emptySet()) , 
-                             notin2 = notinmap.getOrDefault(p2, Collections.emptySet()) ;
-            if (! notin1.equals(notin2) ){
-                Set<Subcl> setdiff = new HashSet<>(notin2);
-                setdiff.removeAll(notin1); // notin2 - notin1
-                if ( !setdiff.isEmpty() )
+            if ( ! mask.sameSubclasses(p1, p2, false) ){
+                final Set<Subcl> diff21 = mask.difference(p2, p1, false); // notin2 - notin1
+                if ( ! diff21.isEmpty() )
                     p = p1;
-                else { // notin1 - notin2 is not empty: just one rewriting step is done
-                    setdiff = new HashSet<>(notin1); // may be a copy is not necessary ...
-                    setdiff.removeAll(notin2);
+                else // notin1 - notin2 is not empty: just one rewriting step is done
                     p = p2; 
-                }
+                final Set<Subcl> sdiff = p == p1 ? diff21 : mask.difference(p1, p2, false);
                 list1 = new HashSet<>(arglist);
                 final Projection fp = p; //workaround: variables used in lambda must be final
-                setdiff.forEach( sx -> { list1.add(Membership.build(fp, sx, false, dom)); });
+                sdiff.forEach( sx -> { list1.add(Membership.build(fp, sx, false, dom)); });
                 arglist.remove(e);
-                notinmap.getOrDefault(fp, Collections.emptySet()).forEach(sx -> { arglist.remove(Membership.build(fp, sx, false, dom)); } ); // optimization: rimosse da list2 tutte le eventuali clausole p notin ...
+                mask.subclasses(fp, false).forEach(sx -> { arglist.remove(Membership.build(fp, sx, false, dom)); } ); // optimization: rimosse da list2 tutte le eventuali clausole p notin ...
                 list2 = new HashSet<>(arglist);
                 list3 = new HashSet<>();
-                setdiff.forEach( sx -> { list3.add(Membership.build(fp, sx, dom)); });
+                sdiff.forEach( sx -> { list3.add(Membership.build(fp, sx, dom)); });
                 list2.add(Or.factory(list3, true));
                 arglist.clear();
                 arglist.add(Or.factory(true, And.factory(list1), And.factory(list2)));
@@ -429,54 +424,58 @@ public final class And  extends NaryGuardOperator implements AndOp<Guard>  {
         //System.out.println("And.specsimplify (1)\n"+this);
         if ( ! simple() )
             return this;
-        //the equalities are first put in the canonical form
-        HashSet<ColorClass> involved = new HashSet<>();
-        for (Map.Entry<ColorClass, Map<Boolean, SortedSet<Equality>>> e : equalityMap().entrySet()) {
-            SortedSet<Equality> es = e.getValue().get(true);
-            if (es != null && es.size() > 1 && toCanonicalForm(es) ) {
+        //the equalities are first put in the canonical form (working on copies built from the index, just where needed)
+        final Map<ColorClass, GuardIndex> index = guardIndex();
+        Map<ColorClass, SortedSet<Equality>> canonical = null;
+        for (GuardIndex x : index.values()) {
+            final SortedSet<Equality> es;
+            if (x.eqSize(true) > 1 && toCanonicalForm(es = x.toEqSet(true)) ) {
                 if (es.isEmpty())
                     return getFalse();
                 
-                involved.add(e.getKey());
+                if (canonical == null)
+                    canonical = new HashMap<>();
+                canonical.put(x.getSort(), es);
              }
         }
-        if (! involved.isEmpty() ) { //new
+        if (canonical != null ) { //new
+            final Map<ColorClass, SortedSet<Equality>> involved = canonical;
             HashSet<Guard> copy = new HashSet<>(); //we copy all guards but the equalities of colors involved in the canonization..
-            getArgs().stream().filter(g -> ! (g.isEquality() && involved.contains(((Equality)g).getSort()))). forEachOrdered(g -> { copy.add(g);} );
-            involved.forEach(cc -> { copy.addAll( equalityMap().get(cc).get(true) ); });
+            getArgs().stream().filter(g -> ! (g.isEquality() && involved.containsKey(((Equality)g).getSort()))). forEachOrdered(g -> { copy.add(g);} );
+            involved.values().forEach(copy::addAll);
             
             return And.factory(copy);
         }
-        //then symbols in inequalities and memberships are replaced, accordibg to equalites
-        boolean replaced = false;
-        for (Map.Entry<ColorClass, Map<Boolean, SortedSet<Equality>>> e :  equalityMap().entrySet()) {
-            Boolean done;
-            SortedSet<Equality> es  = e.getValue().get(true);
-            if (es != null) {
-                SortedSet<Equality> ies = e.getValue().get(false);
-                if (ies != null ) { // we consider the corresponding set of inequalities
-                    if ( (done = replaceEq(ies, es) ) == null)
-                        return getFalse();
-                    else if (done)
-                        replaced = true;
-                }
-                Map<Boolean, Set<Membership>> mm = membMap().get(e.getKey());
-                if (mm != null) // there exists some memebership clauses of the same color ...
-                    for (Map.Entry<Boolean, Set<Membership>> x : mm.entrySet()) {
-                        Set<Membership> ms = x.getValue();
-                        if (ms != null) {
-                            if ( (done = replaceEq(ms, es) ) == null)
-                                return getFalse();
-                            else if (done)
-                                replaced = true;
-                        }
+        //then symbols in inequalities and memberships are replaced, accordibg to equalites (on copies, just for the colors involved)
+        Set<Guard> replaced = null;
+        for (GuardIndex ix : index.values()) {
+            if (ix.eqSize(true) > 0 && (ix.eqSize(false) > 0 || ix.membSize() > 0)) { // there is something to replace
+                final SortedSet<Equality> es = ix.toEqSet(true), ies = ix.toEqSet(false);
+                final Set<Membership> in = ix.toMembSet(true), notin = ix.toMembSet(false);
+                boolean done = false;
+                for (Set<? extends ElementaryGuard> egs : Arrays.<Set<? extends ElementaryGuard>>asList(ies, in, notin)) {
+                    final Boolean d;
+                    if (egs != null) {
+                        if ( (d = replaceEq(egs, es) ) == null)
+                            return getFalse();
+                        
+                        done |= d;
                     }
+                }
+                if (done) {
+                    if (replaced == null)
+                        replaced = new HashSet<>(getArgs());
+                    final ColorClass cc = ix.getSort();
+                    replaced.removeIf(g -> g instanceof ElementaryGuard eg && ! g.isEquality() && eg.getSort().equals(cc)); // the inequalities and memberships of cc ...
+                    for (Set<? extends ElementaryGuard> egs : Arrays.<Set<? extends ElementaryGuard>>asList(ies, in, notin)) // ... are replaced
+                        if (egs != null)
+                            replaced.addAll(egs);
+                }
             }    
         }
         
-        if (replaced) {
-            Guard rep = And.factory( getElementaryArgs() );
-            reset(); // redundant, just for coherence
+        if (replaced != null) {
+            Guard rep = And.factory( replaced );
             //System.out.println("after replacment: -->\n"+rep); //debug
             return rep;
         }
@@ -500,25 +499,20 @@ public final class And  extends NaryGuardOperator implements AndOp<Guard>  {
             ColorClass cc = e.getKey();
             Map<Boolean, SortedSet<Equality>> eqmap = equalityMap().get(cc);
             if ( eqmap != null) { 
-                Set<Membership> memb = e.getValue().get(true), notmemb ;
-                Map<Projection, Subcl>      inmap    = Collections.EMPTY_MAP;
-                Map<Projection, Set<Subcl>> notinmap = Collections.EMPTY_MAP;
+                final boolean memb = e.getValue().get(true) != null;
+                final SubclMask mask = subclMask(cc);
                 oplist = Util.lightCopy(oplist, getArgs());
-                if (memb != null)  {
-                    inmap = Membership.mapSymbolsNoRep(memb);
-                    if ( replaceRedEqWithMember(oplist, eqmap, inmap)) {// e.g., X^1 = (!=) X^2 and X^1 in C_1 (|C_1|=1) -> X^1 in C_1 and X^2 (not)in C_1
-                        changed = true;
-                        continue; //safe: after this step the guards should be simplified
-                    }
+                if (memb && replaceRedEqWithMember(oplist, eqmap, mask)) {// e.g., X^1 = (!=) X^2 and X^1 in C_1 (|C_1|=1) -> X^1 in C_1 and X^2 (not)in C_1
+                    changed = true;
+                    continue; //safe: after this step the guards should be simplified
                 }   
                 Set<Equality> inequalities = eqmap.get(false);
                 if ( inequalities != null ) {
-                    if ( (notmemb = e.getValue().get(false) ) != null) 
-                        notinmap = Membership.mapSymbols(notmemb);
-                    if (memb != null)
-                        changed = removeRedundantIneq(oplist, inequalities, inmap, notinmap) || changed; // this step may just reduce the set of inequalities
+                    inequalities = new TreeSet<>(inequalities); // may be reduced: the cached map is not modified
+                    if (memb)
+                        changed = removeRedundantIneq(oplist, inequalities, mask) || changed; // this step may just reduce the set of inequalities
                     
-                    changed = And.setVarSameDomain(oplist , inequalities, inmap, notinmap ) || changed;
+                    changed = And.setVarSameDomain(oplist , inequalities, mask ) || changed;
                 }
             }
         }
@@ -12,6 +12,7 @@ import expr.Sort;
 public abstract class ConstantGuard extends Guard  {
     
     private Domain domain; //  it must be explicitly indicated
+    private final int hash; // pre-computed, doesn't vary between runs
     /**
      * creates a log. constant with a given support
      * @param dom the color domain
@@ -21,9 +22,15 @@ public abstract class ConstantGuard extends Guard  {
             throw new IllegalArgumentException("the domain cannot be null!");
         
         this.domain = dom;
+        this.hash = 31 * dom.hashCode() + getClass().getName().hashCode();
         super.setSimplified(true);
     }
     
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+    
     /**
      * the method is overriden with a stub implementation 
      * @param simp the simplified flag (here ignored)
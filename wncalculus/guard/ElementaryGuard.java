@@ -1,6 +1,9 @@
 package guard;
 
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
 import color.ColorClass;
 import classfunction.*;
 import expr.*;
@@ -8,7 +11,8 @@ import expr.*;
 /**
  * this class defines the super-type for WN elementary guards;
  * they are implemented as unmodifiable objects, through suitable
- * builder methods (no need of redefining Object.equals and Object.hashCode)
+ * builder methods (no need of redefining Object.equals; Object.hashCode
+ * is redefined so that hash-codes do not vary between runs)
  * @author Lorenzo Capra
  */
 public abstract class ElementaryGuard extends Guard implements SingleSortExpr  {
@@ -17,6 +21,8 @@ public abstract class ElementaryGuard extends Guard implements SingleSortExpr  {
     private final boolean sign;
     private final Projection arg1;
     private final ElementaryFunction arg2;
+    private final int hash; // pre-computed, doesn't vary between runs
+    private volatile Map<ColorClass, GuardIndex> index; // caching (safely published: the cached value is never modified)
      
     /**
      * creates an elementary WN guard, throwing an IllegalDomain exception if the colors of the arguments
@@ -31,9 +37,15 @@ public abstract class ElementaryGuard extends Guard implements SingleSortExpr  {
         this.arg2 = op2;
         this.sign = opsign;
         this.domain = dom;
+        this.hash = Objects.hash(getClass().getName(), op1, op2, opsign, dom);
         super.setSimplified(true);
      }
      
+     @Override
+     public int hashCode() {
+         return this.hash;
+     }
+     
      /**
       * check for the colours of the operands
       * @param op1 the 1st operand
@@ -195,4 +207,14 @@ public abstract class ElementaryGuard extends Guard implements SingleSortExpr  {
         return true;
     }
     
+    @Override
+    public final Map<ColorClass, GuardIndex> guardIndex() {
+        Map<ColorClass, GuardIndex> ix = this.index;
+        if (ix == null) {
+            this.index = ix = GuardIndex.build(Collections.singleton(this));
+        }
+        
+        return ix;
+    }
+    
 }
@@ -6,7 +6,7 @@ import color.ColorClass;
 import expr.Domain;
 import expr.IllegalDomain;
 import expr.Sort;
-import util.ComplexKey;
+import util.PackedInternTable;
 import util.Util;
 
 /**
@@ -19,10 +19,10 @@ public final class Equality extends ElementaryGuard implements Comparable<Equali
     /**
      *
      */
-public  static final Map< ComplexKey, Equality> VALUES = new HashMap<>();
+private static final PackedInternTable<Equality> VALUES = new PackedInternTable<>("Equality");
 
 //caching
-private Map<ColorClass, Map<Boolean, SortedSet<Equality>>> eqMap;
+private volatile Map<ColorClass, Map<Boolean, SortedSet<Equality>>> eqMap;
     /**
      * base constructor
      * @param p1 the first variable
@@ -70,17 +70,11 @@ private Map<ColorClass, Map<Boolean, SortedSet<Equality>>> eqMap;
             exp2 = exp2 == 0 ? 1 : 0;
         }
         
-        p1 = p1.setExp(0);
-        p2 = p2.setExp(exp2 - exp);
+        final Projection np1 = p1.setExp(0), np2 = p2.setExp(exp2 - exp);
+        final boolean sign = op;
         
-        Equality eq;
-        ComplexKey k = new ComplexKey(p1, p2, op, dom);
-        if ( (eq = VALUES.get(k)) == null) {
-            VALUES.put(k,  eq = new Equality(p1, p2, op, dom)) ;
-            //Util.checkBuilderOneStep(eq, VALUES); //debug
-        }
-        
-        return eq;
+        final Equality e = VALUES.get(np1, np2, dom, sign ? 1 : 0);
+        return e != null ? e : VALUES.intern(np1, np2, dom, sign ? 1 : 0, () -> new Equality(np1, np2, sign, dom));
     }
        
     /**
@@ -268,10 +262,11 @@ private Map<ColorClass, Map<Boolean, SortedSet<Equality>>> eqMap;
     //new
     @Override
     public Map<ColorClass, Map<Boolean, SortedSet<Equality>>> equalityMap() {
-        if (this.eqMap == null) {
-            this.eqMap = Collections.singletonMap(getSort(), Collections.singletonMap(sign(), Util.singleton(this, null)));
+        var m = this.eqMap;
+        if (m == null) {
+            this.eqMap = m = Collections.singletonMap(getSort(), Collections.singletonMap(sign(), Util.singleton(this, null)));
         }
-        return this.eqMap;
+        return m;
     }
 
 
@@ -1,8 +1,7 @@
 package guard;
 
-import java.util.HashMap;
-import java.util.Map;
 import expr.Domain;
+import util.InternTable;
 
 /**
  * This class implements the "false" constant guard.
@@ -13,10 +12,7 @@ public final class False extends ConstantGuard  {
      
     private final static String SYMBOL ="false";
     
-    /**
-     *
-     */
-    public final static Map<Domain, False> VALUES = new HashMap<>();
+    private final static InternTable<Domain, False> VALUES = new InternTable<>("False");
     
      
      /**
@@ -32,11 +28,7 @@ public final class False extends ConstantGuard  {
      * @return a False constant
      */
     public static final False getInstance(Domain dom) {
-        False g;
-        if ((g = VALUES.get(dom)) == null) 
-            VALUES.put(dom, g = new False(dom)) ;
-        
-        return g;
+        return VALUES.intern(dom, () -> new False(dom));
     }
 
     @Override
@@ -251,6 +251,26 @@ public abstract class Guard implements LogicalExpr/*, ComparableStep<Guard>*/ {
     public Map<ColorClass, Map<Boolean, Set<Membership>>> membMap() {
         return Collections.emptyMap();
     }
+    
+    /**
+     * 
+     * @return the indexed views (grouped by color) of the elementary guards associated to a guard
+     * this default implementation has to be redefined 
+     */
+    public Map<ColorClass, GuardIndex> guardIndex() {
+        return Collections.emptyMap();
+    }
+    
+    /**
+     * 
+     * @param cc a color class
+     * @return the subclass bitmask of the variables of color <code>cc</code>,
+     * built on the memberships' map associated to a guard
+     * this default implementation may be redefined to cache the outcome
+     */
+    public SubclMask subclMask(ColorClass cc) {
+        return SubclMask.build(cc, membMap().getOrDefault(cc, Collections.emptyMap()));
+    }
 
 
     /**
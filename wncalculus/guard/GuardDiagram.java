@@ -0,0 +1,394 @@
+package guard;
+
+import java.util.*;
+import expr.Domain;
+import expr.IllegalDomain;
+
+/**
+ * this class provides an (optional) representation of guards as reduced ordered
+ * binary decision diagrams, whose variables are the atomic predicates occurring
+ * in guards, taken with positive sign (equalities, "in" memberships); the variables
+ * are ordered by color, projection index, kind of predicate and second argument;
+ * an instance of this class manages the diagrams of a given color domain: it owns
+ * the unique-table and an operation cache, so that the logical operations
+ * (and, or, not, implication, equivalence) are polynomial in the diagrams' size,
+ * instead of expanding (growing) disjunctive forms;
+ * diagrams are referred to by (non-negative) integers, the constants being
+ * <code>FALSE</code> and <code>TRUE</code>
+ * NOTE diagrams are a propositional abstraction of guards: the dependencies between
+ * atoms (e.g., <code>X_1 in C_1</code>, <code>X_1 in C_2</code>) are not taken into account,
+ * so a constant diagram is a sound verdict, whereas a non-constant one may denote
+ * a constant guard
+ * @author Lorenzo Capra
+ */
+public final class GuardDiagram {
+
+    /** the diagram of the constant false */
+    public static final int FALSE = 0;
+    /** the diagram of the constant true */
+    public static final int TRUE  = 1;
+
+    private static final int AND = 0, OR = 1, XOR = 2;
+    private static final int CACHE_SIZE = 1 << 14; // a power of two
+    private static final int TERMINAL = Integer.MAX_VALUE; // the level of constants
+
+    /*
+    the variable ordering: color, first index, memberships before (in)equalities, second argument, successor
+    */
+    private static final Comparator<ElementaryGuard> ORDER = Comparator.comparing((ElementaryGuard e) -> e.getSort().name())
+            .thenComparing(ElementaryGuard::firstIndex)
+            .thenComparingInt(e -> e instanceof Membership ? 0 : 1)
+            .thenComparingInt(e -> e instanceof Membership m ? m.index() : ((Equality) e).secondIndex())
+            .thenComparingInt(e -> e instanceof Equality q ? q.getSucc() : 0);
+
+    private final Domain dom;
+    private final List<ElementaryGuard> atoms = new ArrayList<>(); // the variables, by level
+    private final Map<ElementaryGuard, Integer> levels = new HashMap<>();
+    // node table
+    private int[] var, low, high;
+    private int size;
+    // unique-table (open addressing): entries are node + 1, 0 means free
+    private int[] unique;
+    // operation cache (direct mapped)
+    private final int[] c_op = new int[CACHE_SIZE], c_a = new int[CACHE_SIZE], c_b = new int[CACHE_SIZE], c_res = new int[CACHE_SIZE];
+
+    /**
+     * creates a diagram manager for the guards of a given domain
+     * @param dom a color domain
+     */
+    public GuardDiagram(Domain dom) {
+        this.dom    = dom;
+        this.var    = new int[64];
+        this.low    = new int[64];
+        this.high   = new int[64];
+        this.unique = new int[128];
+        this.var[FALSE] = this.var[TRUE] = TERMINAL;
+        this.high[TRUE] = this.low[TRUE] = TRUE;
+        this.size = 2;
+        Arrays.fill(this.c_op, -1);
+    }
+
+    /**
+     * @return the domain of the represented guards
+     */
+    public Domain getDomain() {
+        return this.dom;
+    }
+
+    /**
+     * @return the overall number of nodes of the managed diagrams (constants included)
+     */
+    public int nodes() {
+        return this.size;
+    }
+
+    /**
+     * @return the number of variables (atoms)
+     */
+    public int variables() {
+        return this.atoms.size();
+    }
+
+    /*
+    the (reduced) node with the given variable and successors
+    */
+    private int mk(int v, int lo, int hi) {
+        if (lo == hi)
+            return lo;
+
+        int mask = this.unique.length - 1, i = hash(v, lo, hi) & mask, e;
+        while ((e = this.unique[i]) != 0) {
+            final int n = e - 1;
+            if (this.var[n] == v && this.low[n] == lo && this.high[n] == hi)
+                return n;
+
+            i = i + 1 & mask;
+        }
+        if (this.size == this.var.length) {
+            this.var  = Arrays.copyOf(this.var, this.size * 2);
+            this.low  = Arrays.copyOf(this.low, this.size * 2);
+            this.high = Arrays.copyOf(this.high, this.size * 2);
+        }
+        final int n = this.size++;
+        this.var[n]  = v;
+        this.low[n]  = lo;
+        this.high[n] = hi;
+        this.unique[i] = n + 1;
+        if (2 * this.size > this.unique.length)
+            rehash();
+
+        return n;
+    }
+
+    private static int hash(int x, int y, int z) {
+        int h = (x * 31 + y) * 31 + z;
+        return h ^ h >>> 16;
+    }
+
+    /*
+    doubles the unique-table
+    */
+    private void rehash() {
+        this.unique = new int[this.unique.length * 2];
+        final int mask = this.unique.length - 1;
+        for (int n = 2; n < this.size; n++) {
+            int i = hash(this.var[n], this.low[n], this.high[n]) & mask;
+            while (this.unique[i] != 0)
+                i = i + 1 & mask;
+            this.unique[i] = n + 1;
+        }
+    }
+
+    /*
+    the generic binary operation
+    */
+    private int apply(int op, int a, int b) {
+        switch (op) {
+            case AND:
+                if (a == FALSE || b == FALSE)
+                    return FALSE;
+                if (a == TRUE || a == b)
+                    return b;
+                if (b == TRUE)
+                    return a;
+                break;
+            case OR:
+                if (a == TRUE || b == TRUE)
+                    return TRUE;
+                if (a == FALSE || a == b)
+                    return b;
+                if (b == FALSE)
+                    return a;
+                break;
+            default: // XOR
+                if (a == b)
+                    return FALSE;
+                if (a == FALSE)
+                    return b;
+                if (b == FALSE)
+                    return a;
+        }
+        if (a > b) { // the operations are commutative
+            final int t = a;
+            a = b;
+            b = t;
+        }
+        final int c = hash(op, a, b) & CACHE_SIZE - 1;
+        if (this.c_op[c] == op && this.c_a[c] == a && this.c_b[c] == b)
+            return this.c_res[c];
+
+        final int va = this.var[a], vb = this.var[b], v = Math.min(va, vb);
+        final int lo = apply(op, va == v ? this.low[a]  : a, vb == v ? this.low[b]  : b),
+                  hi = apply(op, va == v ? this.high[a] : a, vb == v ? this.high[b] : b),
+                  res = mk(v, lo, hi);
+        this.c_op[c]  = op;
+        this.c_a[c]   = a;
+        this.c_b[c]   = b;
+        this.c_res[c] = res;
+
+        return res;
+    }
+
+    /**
+     * @param a a diagram
+     * @param b a diagram
+     * @return the conjunction of the diagrams
+     */
+    public int and(int a, int b) {
+        return apply(AND, a, b);
+    }
+
+    /**
+     * @param a a diagram
+     * @param b a diagram
+     * @return the disjunction of the diagrams
+     */
+    public int or(int a, int b) {
+        return apply(OR, a, b);
+    }
+
+    /**
+     * @param a a diagram
+     * @return the negation of the diagram
+     */
+    public int not(int a) {
+        return apply(XOR, a, TRUE);
+    }
+
+    /**
+     * @param a a diagram
+     * @param b a diagram
+     * @return the diagram of <code>a</code> &rarr; <code>b</code>
+     */
+    public int implies(int a, int b) {
+        return apply(OR, not(a), b);
+    }
+
+    /**
+     * @param a a diagram
+     * @param b a diagram
+     * @return the diagram of <code>a</code> &harr; <code>b</code>
+     */
+    public int equiv(int a, int b) {
+        return not(apply(XOR, a, b));
+    }
+
+    /**
+     * @param a a diagram
+     * @return the number of nodes reachable from <code>a</code> (constants included)
+     */
+    public int size(int a) {
+        final BitSet seen = new BitSet();
+        final Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(a);
+        while (!stack.isEmpty()) {
+            final int n = stack.pop();
+            if (!seen.get(n)) {
+                seen.set(n);
+                if (n > TRUE) {
+                    stack.push(this.low[n]);
+                    stack.push(this.high[n]);
+                }
+            }
+        }
+
+        return seen.cardinality();
+    }
+
+    /*
+    collects the atoms (with positive sign) of a guard
+    */
+    private static void atoms(Guard g, Set<ElementaryGuard> set) {
+        if (g instanceof ElementaryGuard e)
+            set.add(e.sign() ? e : (ElementaryGuard) e.opposite());
+        else if (g instanceof NaryGuardOperator op)
+            op.getArgs().forEach(x -> { atoms(x, set); });
+        else if (g instanceof Neg n)
+            atoms(n.getArg(), set);
+    }
+
+    /*
+    the level of a positive atom
+    */
+    private int level(ElementaryGuard a) {
+        final Integer l = this.levels.get(a);
+        if (l == null)
+            throw new IllegalArgumentException("unknown atom: "+a);
+
+        return l;
+    }
+
+    /**
+     * builds the diagram of a guard; the (new) atoms of the guard are given levels
+     * following the variable ordering
+     * @param g a guard built on And, Or, Neg, elementary and constant guards
+     * @return the corresponding diagram
+     * @throws IllegalDomain if the guard's domain differs from the manager's one
+     * @throws IllegalArgumentException if the guard contains unexpected operators
+     */
+    public int build(Guard g) {
+        if (!this.dom.equals(g.getDomain()))
+            throw new IllegalDomain("the guard's domain ("+g.getDomain()+") differs from "+this.dom);
+
+        final Set<ElementaryGuard> set = new HashSet<>();
+        atoms(g, set);
+        set.removeAll(this.levels.keySet());
+        if (!set.isEmpty()) {
+            final List<ElementaryGuard> l = new ArrayList<>(set);
+            l.sort(ORDER);
+            l.forEach(a -> { this.levels.put(a, this.atoms.size()); this.atoms.add(a); });
+        }
+
+        return toDiagram(g);
+    }
+
+    private int toDiagram(Guard g) {
+        if (g instanceof True)
+            return TRUE;
+
+        if (g instanceof False)
+            return FALSE;
+
+        if (g instanceof ElementaryGuard e)
+            return e.sign() ? mk(level(e), FALSE, TRUE) : mk(level((ElementaryGuard) e.opposite()), TRUE, FALSE);
+
+        if (g instanceof Neg n)
+            return not(toDiagram(n.getArg()));
+
+        if (g instanceof NaryGuardOperator op) {
+            final int opcode = g instanceof And ? AND : OR;
+            int res = opcode == AND ? TRUE : FALSE;
+            for (Guard x : op.getArgs())
+                res = apply(opcode, res, toDiagram(x));
+
+            return res;
+        }
+
+        throw new IllegalArgumentException("unexpected guard: "+g);
+    }
+
+    /**
+     * converts a diagram back into a guard: each path leading to <code>TRUE</code> gives
+     * an "And" form of elementary guards, the resulting forms are disjoint
+     * @param a a diagram
+     * @return the corresponding guard, i.e., a (disjoined) "Or" of elementary "And" forms,
+     * or a constant
+     */
+    public Guard toGuard(int a) {
+        if (a == TRUE)
+            return True.getInstance(this.dom);
+
+        if (a == FALSE)
+            return False.getInstance(this.dom);
+
+        final Set<Guard> cubes = new HashSet<>();
+        paths(a, new ArrayList<>(), cubes);
+
+        return Or.factory(cubes, false, true);
+    }
+
+    /*
+    collects the paths leading to TRUE
+    */
+    private void paths(int n, List<ElementaryGuard> path, Set<Guard> cubes) {
+        if (n == TRUE)
+            cubes.add(path.isEmpty() ? True.getInstance(this.dom) : And.factory(path, false));
+        else if (n != FALSE) {
+            final ElementaryGuard atom = this.atoms.get(this.var[n]);
+            path.add((ElementaryGuard) atom.opposite());
+            paths(this.low[n], path, cubes);
+            path.set(path.size() - 1, atom);
+            paths(this.high[n], path, cubes);
+            path.remove(path.size() - 1);
+        }
+    }
+
+    /**
+     * checks whether two guards are equivalent, through their diagrams
+     * @param g1 a guard
+     * @param g2 a guard (with the same domain)
+     * @return <code>true</code> if the guards are propositionally equivalent (a sound,
+     * not complete test, @see the class' note)
+     */
+    public static boolean equivalent(Guard g1, Guard g2) {
+        final GuardDiagram dd = new GuardDiagram(g1.getDomain());
+
+        return dd.build(g1) == dd.build(g2);
+    }
+
+    /**
+     * brings a guard into a disjoint sum of elementary "And" forms, through its diagram
+     * @param g a guard
+     * @return the equivalent disjoint form
+     */
+    public static Guard toDisjointForm(Guard g) {
+        final GuardDiagram dd = new GuardDiagram(g.getDomain());
+
+        return dd.toGuard(dd.build(g));
+    }
+
+    @Override
+    public String toString() {
+        return "diagrams on " + this.dom + ": " + this.atoms.size() + " variables, " + this.size + " nodes";
+    }
+}
@@ -0,0 +1,232 @@
+package guard;
+
+import java.util.*;
+import java.util.function.Predicate;
+import classfunction.Projection;
+import color.ColorClass;
+import expr.Domain;
+import expr.Interval;
+import expr.Sort;
+
+/**
+ * this class compiles a guard into a predicate over concrete color bindings:
+ * a binding is an <code>int[]</code> holding, for each color class <code>C</code>
+ * of the guard's domain (considered in natural order) and each index <code>i</code>
+ * (from 1 to the multiplicity of <code>C</code>), the value of the variable <code>C_i</code>,
+ * i.e. an integer in <code>[0, |C|)</code>; the subclasses of <code>C</code> are
+ * contiguous ranges of values, in order;
+ * (in)equalities are evaluated modulo the class size (successor offsets),
+ * memberships by range checks; once compiled, an evaluation doesn't allocate any object
+ * @author Lorenzo Capra
+ */
+public final class GuardEvaluator {
+
+    private final Domain dom;
+    private final Map<ColorClass, Integer> base  = new HashMap<>(); // the position of C_1 in bindings
+    private final Map<ColorClass, int[]>   bounds = new HashMap<>(); // the subclass bounds (bounds[i], bounds[i+1]), the last one is the class size
+    private final int[] radix; // for each position, the corresponding class size
+    private final Predicate<int[]> pred;
+
+    private GuardEvaluator (Guard g, Map<? extends ColorClass, int[]> sizes) {
+        this.dom = g.getDomain();
+        final List<Integer> rad = new ArrayList<>();
+        for (Map.Entry<Sort, Integer> e : new TreeMap<Sort, Integer>(this.dom.asMap()).entrySet()) {
+            if (! (e.getKey() instanceof ColorClass) )
+                throw new IllegalArgumentException("unexpected sort: "+e.getKey());
+
+            final ColorClass cc = (ColorClass) e.getKey();
+            final int[] b = subclBounds(cc, sizes.get(cc));
+            this.base.put(cc, rad.size());
+            this.bounds.put(cc, b);
+            for (int i = 0; i < e.getValue(); i++)
+                rad.add(b[b.length - 1]);
+        }
+        this.radix = rad.stream().mapToInt(Integer::intValue).toArray();
+        this.pred  = toPredicate(g);
+    }
+
+    /*
+    computes the subclass bounds of a class, given the (possibly null) subclass sizes:
+    if they are not specified, the lower bounds of constraints are taken
+    */
+    private static int[] subclBounds(ColorClass cc, int[] sizes) {
+        final Interval[] constr = cc.getConstraints();
+        if (sizes != null && sizes.length != constr.length)
+            throw new IllegalArgumentException("wrong number of subclass sizes for "+cc);
+
+        final int[] b = new int[constr.length + 1];
+        for (int i = 0; i < constr.length; i++) {
+            final int s = sizes == null ? constr[i].lb() : sizes[i];
+            if (s < constr[i].lb() || !constr[i].unbounded() && s > constr[i].ub())
+                throw new IllegalArgumentException("subclass size "+s+" out of "+constr[i]+" ("+cc+")");
+
+            b[i + 1] = b[i] + s;
+        }
+
+        return b;
+    }
+
+    /**
+     * compiles a guard, by assigning color classes the given sizes
+     * @param g a guard built on And, Or, Neg, elementary and constant guards
+     * @param sizes a map between (some) colors of the guard's domain and the sizes of their subclasses;
+     * for any missing color, the lower bounds of the subclass constraints are taken
+     * @return the compiled guard
+     * @throws IllegalArgumentException if the sizes are not consistent with constraints, or
+     * the guard contains unexpected operators
+     */
+    public static GuardEvaluator compile(Guard g, Map<? extends ColorClass, int[]> sizes) {
+        return new GuardEvaluator(g, sizes);
+    }
+
+    /**
+     * compiles a guard, by assigning each color (sub)class the lower bound of
+     * its constraint as size
+     * @param g a guard built on And, Or, Neg, elementary and constant guards
+     * @return the compiled guard
+     */
+    public static GuardEvaluator compile(Guard g) {
+        return new GuardEvaluator(g, Collections.emptyMap());
+    }
+
+    /*
+    the position of a variable in bindings
+    */
+    private int position(Projection p) {
+        final Integer b = this.base.get(p.getSort());
+        if (b == null)
+            throw new IllegalArgumentException("the variable's color ("+p.getSort()+") is not in "+this.dom);
+
+        return b + p.getIndex() - 1;
+    }
+
+    private Predicate<int[]> toPredicate(Guard g) {
+        if (g instanceof True)
+            return b -> true;
+
+        if (g instanceof False)
+            return b -> false;
+
+        if (g instanceof Equality e) {
+            final Projection p1 = e.getArg1(), p2 = e.getArg2();
+            final int i = position(p1), j = position(p2), n = size(p1.getSort());
+            final int off = Math.floorMod(p1.getSucc() - p2.getSucc(), n); // X_i + s1 = X_j + s2 iff X_i + s1 - s2 = X_j (mod n)
+            final boolean sign = e.sign();
+            if (off == 0)
+                return b -> (b[i] == b[j]) == sign;
+
+            return b -> (b[i] + off) % n == b[j] == sign;
+        }
+
+        if (g instanceof Membership m) {
+            final Projection p = m.getArg1();
+            final int[] sb = this.bounds.get(p.getSort());
+            final int i = position(p), n = sb[sb.length - 1], off = Math.floorMod(p.getSucc(), n), lo = sb[m.index() - 1], hi = sb[m.index()];
+            final boolean sign = m.sign();
+            if (off == 0)
+                return b -> (lo <= b[i] && b[i] < hi) == sign;
+
+            return b -> { int v = (b[i] + off) % n; return (lo <= v && v < hi) == sign; };
+        }
+
+        if (g instanceof Neg neg)
+            return toPredicate(neg.getArg()).negate();
+
+        if (g instanceof NaryGuardOperator op) {
+            final List<Predicate<int[]>> args = op.getArgs().stream().map(this::toPredicate).toList();
+            if (g instanceof And)
+                return b -> { for (Predicate<int[]> x : args) if (!x.test(b)) return false; return true; };
+
+            return b -> { for (Predicate<int[]> x : args) if (x.test(b)) return true; return false; };
+        }
+
+        throw new IllegalArgumentException("unexpected guard: "+g);
+    }
+
+    /**
+     * @return the domain of the compiled guard
+     */
+    public Domain getDomain() {
+        return this.dom;
+    }
+
+    /**
+     * @param cc a color class of the domain
+     * @return the (concrete) size of the class
+     */
+    public int size(ColorClass cc) {
+        final int[] b = this.bounds.get(cc);
+        return b[b.length - 1];
+    }
+
+    /**
+     * @param cc a color class of the domain
+     * @return the (concrete) bounds of the subclasses of the class: the i-th subclass
+     * is made of the values in [b[i-1], b[i]), the last bound is the class size
+     */
+    public int[] subclBounds(ColorClass cc) {
+        return this.bounds.get(cc).clone();
+    }
+
+    /**
+     * @return the length of bindings
+     */
+    public int width() {
+        return this.radix.length;
+    }
+
+    /**
+     * @param cc a color class of the domain
+     * @param i a variable index
+     * @return the position of the variable <code>cc_i</code> in bindings
+     */
+    public int position(ColorClass cc, int i) {
+        return this.base.get(cc) + i - 1;
+    }
+
+    /**
+     * evaluates the compiled guard
+     * @param binding a binding of the domain's variables
+     * @return the guard's value on the binding
+     */
+    public boolean test(int[] binding) {
+        return this.pred.test(binding);
+    }
+
+    /**
+     * @return the number of bindings of the domain
+     * @throws ArithmeticException if the number overflows
+     */
+    public long bindings() {
+        long k = 1;
+        for (int r : this.radix)
+            k = Math.multiplyExact(k, r);
+
+        return k;
+    }
+
+    /**
+     * evaluates the compiled guard on all the bindings of the domain; bindings are
+     * enumerated in lexicographic order (the last position varies fastest), so that
+     * the <code>k</code>-th bit refers to the <code>k</code>-th binding
+     * @return the set of bindings satisfying the guard
+     * @throws IllegalArgumentException if there are too many bindings
+     */
+    public BitSet testAll() {
+        final long n = bindings();
+        if (n > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("too many bindings: "+n);
+
+        final BitSet res = new BitSet((int) n);
+        final int[] b = new int[this.radix.length];
+        for (int k = 0; k < n; k++) {
+            if (this.pred.test(b))
+                res.set(k);
+            for (int pos = b.length - 1; pos >= 0 && ++b[pos] == this.radix[pos]; pos--) // next binding
+                b[pos] = 0;
+        }
+
+        return res;
+    }
+
+}
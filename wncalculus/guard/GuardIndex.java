@@ -0,0 +1,188 @@
+package guard;
+
+import java.util.*;
+import color.ColorClass;
+
+/**
+ * this class gives a compact, indexed view of the elementary operands of a given color
+ * belonging to a (simple) guard: the equalities and the inequalities are held in arrays sorted
+ * by (first index, second index, successor), the memberships in arrays indexed by
+ * the projection's index; the views of all colors are built in one pass over the operands
+ * @author Lorenzo Capra
+ */
+public final class GuardIndex {
+
+    private static final Equality[]   NO_EQ   = {};
+
+    private final ColorClass cc;
+    private final Equality[] eq, ineq; // sorted
+    private final Membership[][] in, notin; // indexed by projection's index - 1
+    private final int memb; // the overall number of memberships
+
+    private GuardIndex(ColorClass cc, List<Equality> eq, List<Equality> ineq, List<Membership> memb) {
+        this.cc   = cc;
+        this.eq   = sorted(eq);
+        this.ineq = sorted(ineq);
+        this.memb = memb.size();
+        int max = 0;
+        for (Membership m : memb)
+            max = Math.max(max, m.firstIndex());
+        this.in    = new Membership[max][];
+        this.notin = new Membership[max][];
+        for (Membership m : memb) {
+            final Membership[][] arr = m.sign() ? this.in : this.notin;
+            final int i = m.firstIndex() - 1;
+            final Membership[] old = arr[i];
+            if (old == null)
+                arr[i] = new Membership[] {m};
+            else {
+                arr[i] = Arrays.copyOf(old, old.length + 1); // usually at most one element
+                arr[i][old.length] = m;
+            }
+        }
+    }
+
+    /*
+    builds a sorted array from a (possibly null) list of equalities
+    */
+    private static Equality[] sorted(List<Equality> l) {
+        if (l == null)
+            return NO_EQ;
+
+        final Equality[] arr = l.toArray(NO_EQ);
+        Arrays.sort(arr);
+
+        return arr;
+    }
+
+    /**
+     * builds in one pass the indexed views of a collection of guards, grouped by color;
+     * only (in)equalities and memberships are taken into account
+     * @param args a collection of guards (the operands of an n-ary operator)
+     * @return the map between colors and corresponding indexed views; an empty map if
+     * there are no elementary guards
+     */
+    public static Map<ColorClass, GuardIndex> build(Collection<? extends Guard> args) {
+        final Map<ColorClass, List<Equality>> eqmap = new HashMap<>(), ineqmap = new HashMap<>();
+        final Map<ColorClass, List<Membership>> mmap = new HashMap<>();
+        for (Guard g : args) {
+            if (g instanceof Equality e)
+                (e.sign() ? eqmap : ineqmap).computeIfAbsent(e.getSort(), k -> new ArrayList<>()).add(e);
+            else if (g instanceof Membership m)
+                mmap.computeIfAbsent(m.getSort(), k -> new ArrayList<>()).add(m);
+        }
+        if (eqmap.isEmpty() && ineqmap.isEmpty() && mmap.isEmpty())
+            return Collections.emptyMap();
+
+        final Set<ColorClass> colors = new HashSet<>(eqmap.keySet());
+        colors.addAll(ineqmap.keySet());
+        colors.addAll(mmap.keySet());
+        final Map<ColorClass, GuardIndex> index = new HashMap<>();
+        colors.forEach(cc -> { index.put(cc, new GuardIndex(cc, eqmap.get(cc), ineqmap.get(cc), mmap.getOrDefault(cc, Collections.emptyList()))); });
+
+        return Collections.unmodifiableMap(index);
+    }
+
+    /**
+     * @return the color of <code>this</code> view
+     */
+    public ColorClass getSort() {
+        return this.cc;
+    }
+
+    /**
+     * @param sign the equal/not-equal flag
+     * @return the number of (in)equalities of specified sign
+     */
+    public int eqSize(boolean sign) {
+        return (sign ? this.eq : this.ineq).length;
+    }
+
+    /**
+     * @param sign the equal/not-equal flag
+     * @param k a position
+     * @return the <code>k</code>-th (in)equality (in the sorted order)
+     */
+    public Equality equality(boolean sign, int k) {
+        return (sign ? this.eq : this.ineq)[k];
+    }
+
+    /**
+     * @param sign the equal/not-equal flag
+     * @return the (unmodifiable) sorted list of (in)equalities of specified sign
+     */
+    public List<Equality> equalities(boolean sign) {
+        return Collections.unmodifiableList(Arrays.asList(sign ? this.eq : this.ineq));
+    }
+
+    /**
+     * @return the overall number of memberships
+     */
+    public int membSize() {
+        return this.memb;
+    }
+
+    /**
+     * @return the greatest projection index occurring in memberships
+     */
+    public int maxMembIndex() {
+        return this.in.length;
+    }
+
+    /**
+     * @param i a projection index
+     * @param sign in/notin flag
+     * @return the (possibly empty, unmodifiable) list of memberships of specified sign on the <code>i</code>-th variable
+     */
+    public List<Membership> memberships(int i, boolean sign) {
+        final Membership[][] arr = sign ? this.in : this.notin;
+        final Membership[] m;
+
+        return i > arr.length || (m = arr[i - 1]) == null ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(m));
+    }
+
+    /**
+     * @param sign in/notin flag
+     * @return <code>true</code> if and only if there are memberships of the specified sign
+     */
+    public boolean hasMemb(boolean sign) {
+        for (Membership[] m : sign ? this.in : this.notin)
+            if (m != null)
+                return true;
+
+        return false;
+    }
+
+    /**
+     * @param sign the equal/not-equal flag
+     * @return a new (modifiable) sorted set containing the (in)equalities of specified sign;
+     * <code>null</code> if there are none
+     */
+    SortedSet<Equality> toEqSet(boolean sign) {
+        final Equality[] arr = sign ? this.eq : this.ineq;
+
+        return arr.length == 0 ? null : new TreeSet<>(Arrays.asList(arr));
+    }
+
+    /**
+     * @param sign in/notin flag
+     * @return a new (modifiable) set containing the memberships of specified sign;
+     * <code>null</code> if there are none
+     */
+    Set<Membership> toMembSet(boolean sign) {
+        Set<Membership> set = null;
+        for (Membership[] m : sign ? this.in : this.notin)
+            if (m != null) {
+                if (set == null)
+                    set = new HashSet<>();
+                set.addAll(Arrays.asList(m));
+            }
+
+        return set;
+    }
+
+    @Override
+    public String toString() {
+        return this.cc.name() + ": " + Arrays.toString(this.eq) + ' ' + Arrays.toString(this.ineq) + ' ' + this.memb + " memb.";
+    }
+}
@@ -4,7 +4,7 @@ import java.util.*;
 import classfunction.*;
 import color.ColorClass;
 import expr.*;
-import util.ComplexKey;
+import util.PackedInternTable;
 import util.Util;
 
 /**
@@ -14,9 +14,9 @@ import util.Util;
  */
 public final class Membership extends ElementaryGuard  {
     
-    private static final Map< ComplexKey, Membership> VALUES = new HashMap<>();
+    private static final PackedInternTable<Membership> VALUES = new PackedInternTable<>("Membership");
     //caching
-    public Map<ColorClass, Map<Boolean, Set<Membership>>> membMap;
+    private volatile Map<ColorClass, Map<Boolean, Set<Membership>>> membMap;
 
     /**
      * given a list of membership clauses, extracts a map from symbols to the subclasses
@@ -68,16 +68,11 @@ public final class Membership extends ElementaryGuard  {
     public static Membership build(Projection p1, Subcl sc, boolean sign, Domain dom) {
         ColorClass cc = checkDomain(p1,sc,dom);
         checkIndex(p1, dom);
-        if (! sign && cc.subclasses() == 2) { //  there are just two subclasses: not in -> in
-            sc = Subcl.factory(sc.index() == 1 ? 2 : 1, cc);
-            sign = true; 
-        }
-        ComplexKey k = new ComplexKey(p1, sc, sign, dom);
-        Membership m = VALUES.get(k);
-        if ( m == null) 
-            VALUES.put(k,  m = new Membership(p1, sc, sign, dom)) ;
+        if (! sign && cc.subclasses() == 2)  //  there are just two subclasses: not in -> in
+            return build(p1, Subcl.factory(sc.index() == 1 ? 2 : 1, cc), true, dom);
         
-        return m;
+        final Membership m = VALUES.get(p1, sc, dom, sign ? 1 : 0);
+        return m != null ? m : VALUES.intern(p1, sc, dom, sign ? 1 : 0, () -> new Membership(p1, sc, sign, dom));
     }
     
     /**
@@ -212,10 +207,11 @@ public final class Membership extends ElementaryGuard  {
     //new
     @Override
     public Map<ColorClass, Map<Boolean, Set<Membership>>> membMap() {
-        if (this.membMap == null){
-            this.membMap = Collections.singletonMap(getSort(), Collections.singletonMap(sign(), Collections.singleton(this)));
+        var m = this.membMap;
+        if (m == null){
+            this.membMap = m = Collections.singletonMap(getSort(), Collections.singletonMap(sign(), Collections.singleton(this)));
         }
-        return this.membMap; 
+        return m; 
     }
 
     
@@ -1,6 +1,7 @@
 package guard;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import classfunction.Projection;
 import static classfunction.Projection.*;
 import color.ColorClass;
@@ -16,9 +17,11 @@ import util.Pair;
 public abstract class NaryGuardOperator extends Guard implements N_aryOp<Guard>  {
     
     private final Set<Guard> args;   // the operand's list
-    // caching
-    private Map<ColorClass, Map<Boolean, SortedSet<Equality>> >   eq_map;
-    private Map<ColorClass, Map<Boolean, Set<Membership>> >       memb_map;
+    // caching (safely published: the cached values are never modified)
+    private volatile Map<ColorClass, GuardIndex>                           index;
+    private volatile Map<ColorClass, Map<Boolean, SortedSet<Equality>> >   eq_map;
+    private volatile Map<ColorClass, Map<Boolean, Set<Membership>> >       memb_map;
+    private final Map<ColorClass, SubclMask>                               mask_map = new ConcurrentHashMap<>();
     private final boolean congrsign = this instanceof And ; // the "congruent sign"
     private final boolean simple ;
     
@@ -31,10 +34,26 @@ public abstract class NaryGuardOperator extends Guard implements N_aryOp<Guard>
     protected NaryGuardOperator(Set<? extends Guard> guards, boolean check) {
         if (check)
             Expressions.checkDomain(guards);
-        this.args   =  Collections.unmodifiableSet(guards);
+        this.args   =  Expressions.canonicalSet(guards);
         this.simple =  LogicalExprs.simple(this.args);
     }
     
+    /**
+     * builds (in one pass over the operands) the indexed views of the elementary
+     * operands of <code>this</code> guard, grouped by color
+     * @return the (possibly empty) map between colors and indexed views; if the guard is
+     * not a simple form then returns an empty map
+     */
+    @Override
+    public final Map<ColorClass, GuardIndex> guardIndex() {
+        Map<ColorClass, GuardIndex> ix = this.index;
+        if (ix == null) {
+            this.index = ix = simple() ? GuardIndex.build(this.args) : Collections.emptyMap();
+        }
+        
+        return ix;
+    }
+    
     /**
      * calculates the map of equalities included in <code>this</code> guard, grouped
      * by color and sign
@@ -43,11 +62,12 @@ public abstract class NaryGuardOperator extends Guard implements N_aryOp<Guard>
      */
     @Override
     public final Map<ColorClass, Map <Boolean, SortedSet<Equality> > > equalityMap() {
-        if ( this.eq_map == null) { 
-            this.eq_map = simple() ?  Collections.unmodifiableMap( setEqualityMap() ) : Collections.EMPTY_MAP;
+        Map<ColorClass, Map <Boolean, SortedSet<Equality> > > m = this.eq_map;
+        if ( m == null) { 
+            this.eq_map = m = guardIndex().isEmpty() ? Collections.EMPTY_MAP : Collections.unmodifiableMap( setEqualityMap() );
         }
         
-        return this.eq_map;
+        return m;
     }
     
    /**
@@ -58,44 +78,66 @@ public abstract class NaryGuardOperator extends Guard implements N_aryOp<Guard>
      */
     @Override
     public final Map<ColorClass, Map <Boolean, Set<Membership> > > membMap() {
-        if ( this.memb_map == null) {
-            this.memb_map = simple() ? Collections.unmodifiableMap( setMemberMap() ) : Collections.EMPTY_MAP;
+        Map<ColorClass, Map <Boolean, Set<Membership> > > m = this.memb_map;
+        if ( m == null) {
+            this.memb_map = m = guardIndex().isEmpty() ? Collections.EMPTY_MAP : Collections.unmodifiableMap( setMemberMap() );
+        }
+        
+        return m;
+    }
+    
+    /**
+     * the subclass bitmask is computed once for each color
+     * @param cc a color class
+     * @return the subclass bitmask of the variables of color <code>cc</code>
+     */
+    @Override
+    public final SubclMask subclMask(ColorClass cc) {
+        SubclMask mask = this.mask_map.get(cc);
+        if (mask == null) {
+            final SubclMask old = this.mask_map.putIfAbsent(cc, mask = super.subclMask(cc));
+            if (old != null)
+                mask = old;
         }
         
-        return this.memb_map;
+        return mask;
     }
     
     /*
-    initializes the color-map for memberships, based on their sign
+    initializes the (read-only) color-map for memberships, based on their sign
     */
     private Map<ColorClass, Map <Boolean, Set<Membership> > > setMemberMap() {
         Map<ColorClass, Map <Boolean, Set<Membership> > > map = new HashMap<>();
-        this.args.stream().filter(g -> g instanceof Membership).forEachOrdered(g -> {
-            ColorClass cc = ((Membership)g).getSort();
-            Map<Boolean, Set<Membership>> m_cc = map.get(cc);
-            if (m_cc == null)
-                map.put(cc, m_cc = new HashMap<>());
-            Membership gm = (Membership) g;
-            Util.addElem(gm.sign(), gm, m_cc);
+        guardIndex().forEach((cc, x) -> {
+            if (x.membSize() > 0) {
+                Map<Boolean, Set<Membership>> m_cc = new HashMap<>();
+                Set<Membership> ms;
+                if ( (ms = x.toMembSet(false)) != null)
+                    m_cc.put(false, Collections.unmodifiableSet(ms));
+                if ( (ms = x.toMembSet(true)) != null)
+                    m_cc.put(true, Collections.unmodifiableSet(ms));
+                map.put(cc, Collections.unmodifiableMap(m_cc));
+            }
         });
         
         return map;
     }
     
     /*
-    initializes the color-maps for equalities, based on their sign
+    initializes the (read-only) color-maps for equalities, based on their sign
     */
     private Map<ColorClass, Map<Boolean, SortedSet<Equality>> > setEqualityMap () {
         Map<ColorClass, Map<Boolean, SortedSet<Equality>> > map  = new HashMap<>();
-        //Comparator<Equality> comp = (e1,e2) -> { int c = e1.firstIndex().compareTo(e2.firstIndex()); //the equalities have the same color and sign
-                    //if (c == 0 && (c = e1.secondIndex().compareTo(e2.secondIndex()) ) ==0) c = e1.getSucc().compareTo(e2.getSucc()); return c;};
-        this.args.stream().filter(g -> g instanceof Equality).forEachOrdered( g -> {
-            ColorClass cc = ((Equality)g).getSort();
-            Map<Boolean, SortedSet<Equality>> m_cc = map.get(cc);
-            if (m_cc == null)
-                map.put(cc, m_cc = new HashMap<>());
-            Equality ge = (Equality) g;
-            Util.addOrdElem(ge.sign(), ge, m_cc, null );
+        guardIndex().forEach((cc, x) -> {
+            if (x.eqSize(false) + x.eqSize(true) > 0) {
+                Map<Boolean, SortedSet<Equality>> m_cc = new HashMap<>();
+                SortedSet<Equality> es;
+                if ( (es = x.toEqSet(false)) != null)
+                    m_cc.put(false, Collections.unmodifiableSortedSet(es));
+                if ( (es = x.toEqSet(true)) != null)
+                    m_cc.put(true, Collections.unmodifiableSortedSet(es));
+                map.put(cc, Collections.unmodifiableMap(m_cc));
+            }
         });
         
         return map;
@@ -155,38 +197,11 @@ public abstract class NaryGuardOperator extends Guard implements N_aryOp<Guard>
         return map != null ? map.getOrDefault(sign, Collections.EMPTY_SET) : Collections.EMPTY_SET;
     }
             
-     /*
-     enforce recomputing both the "congruent" maps
-     */
-    void reset() {
-        this.eq_map = null;
-        this.memb_map = null;
-    }
-       
    @Override
    public final Set<? extends Guard> getArgs() {
         return this.args;
     }
    
-   /*
-   collects the elementary guards of this operator into a set
-   */
-   final Set<? extends ElementaryGuard> getElementaryArgs() {
-        Set<ElementaryGuard> eset = new HashSet<>();
-        for (Map<Boolean, SortedSet<Equality>> x : equalityMap().values()) {
-            eset.addAll(x.getOrDefault(true, Collections.emptySortedSet()));
-            eset.addAll(x.getOrDefault(false, Collections.emptySortedSet()));
-        }
-        
-        for (Map<Boolean, Set<Membership>> y : membMap().values()) {
-            eset.addAll(y.getOrDefault(true, Collections.emptySortedSet()));
-            eset.addAll(y.getOrDefault(false, Collections.emptySortedSet()));
-        }
-        
-        return eset;
-   }
-    
-    
     @Override
     public final boolean equals (Object o) {
         return N_aryOp.super.isEqual(o);
@@ -277,42 +292,37 @@ public abstract class NaryGuardOperator extends Guard implements N_aryOp<Guard>
         if no change has been done, finally compares each congruent term (there is at most one, after step 1),
         with the corresponding opposite list, first checking for the presence of a complementary membership, then
         (in the case of a negative check) eliminating similar opposite terms
+        memberships of each color are handled through the corresponding subclass bitmask (@see SubclMask)
         @return <code>this</code> if no changes are done
      */
    private Guard reduceMemberships () {
         Set<Guard> guards = null; // (light) copy of the operands
-        for (Map.Entry<ColorClass, Map<Boolean, Set<Membership>>> em : membMap().entrySet()) {
-            ColorClass cc = em.getKey();
+        for (ColorClass cc : membMap().keySet()) {
             final int n = cc.subclasses();
             if (n > 1) { // partitioned class
-                Map<Boolean, Set<Membership>> map_cc = em.getValue();
-                Set<Membership> c_memb  = map_cc.getOrDefault( this.congrsign, Collections.EMPTY_SET), 
-                                nc_memb = map_cc.getOrDefault(!this.congrsign, Collections.EMPTY_SET);
-                HashMap<Integer, Set<Membership>> c_i_map = Util.mapFeature(c_memb,  m -> m.firstIndex()/*, m -> m.subcl().index()*/);
-                for (Set<Membership> cs :  c_i_map.values() )  
-                    if ( cs.size() > 1  ) 
+                final SubclMask mask = subclMask(cc);
+                final int size = mask.size();
+                for (int k = 0; k < size; k++)  
+                    if ( mask.count(k, this.congrsign) > 1  ) 
                         return (Guard) getZero(); 
                 // for each projection, there is at most one "congruent" membership of color cc
-                Set<Map.Entry<Integer, Set<Membership>>> nc_i_set = Util.mapFeature( nc_memb,  m -> m.firstIndex() ).entrySet();
-                for (Map.Entry<Integer, Set<Membership>> sim_nc : nc_i_set) {
-                    Set<Membership> ncs = sim_nc.getValue(), cs; 
-                    int m = ncs.size();
-                    if ( m == n || (cs = c_i_map.get(sim_nc.getKey())) != null && ncs.contains(cs.iterator().next().opposite()) ) //cs is either empty or a singleton ...
+                for (int k = 0; k < size; k++) {
+                    final boolean cs = mask.count(k, this.congrsign) > 0; // a congruent term
+                    final int m = mask.count(k, !this.congrsign);
+                    if ( m == n || mask.clashes(k) ) //cs is either empty or a singleton ...
                         return  (Guard) getZero();
                     // there are no complementary guards are and, for each projection, less than n "non-congruent" memberships
-                    if ( cs != null ||  m > 1 && (m == n -1 || this instanceof /*Or*/And) ) { 
+                    if ( m > 0 && (cs ||  m > 1 && (m == n -1 || this instanceof /*Or*/And)) ) { 
                         guards = Util.lightCopy(guards, this.args);
-                        guards.removeAll(ncs);
-                        if (cs == null) {// no corresponding congruent term: ncs is replaced by the equivalent "opposite"
-                            Projection pi = ncs.iterator().next().getArg1();
-                            HashSet<Membership> oppargs = new HashSet<>();
-                            for (int j = 1 ; j <= n ; j++) {
-                                Membership mem = Membership.build(pi, j, this.congrsign, getDomain());
-                                if (!ncs.contains(mem.opposite())) //sbagliato: se sono più di uno bisogna aggiungere l'operatore
-                                    oppargs.add(mem);
-                            }
+                        final Projection pi = mask.var(k);
+                        final Set<Membership> oppargs = new HashSet<>();
+                        for (int j = 1 ; j <= n ; j++) 
+                            if (mask.contains(k, !this.congrsign, j))
+                                guards.remove(Membership.build(pi, j, !this.congrsign, getDomain()));
+                            else if (!cs) // no corresponding congruent term: ncs is replaced by the equivalent "opposite"
+                                oppargs.add(Membership.build(pi, j, this.congrsign, getDomain())); //sbagliato: se sono più di uno bisogna aggiungere l'operatore
+                        if (!cs) 
                             guards.add(/*And*/Or.factory(oppargs,true)); //va bene anche se this è And (Or): in quel caso oppargs è singleton
-                        }
                     }
                 }
             }
@@ -410,13 +420,11 @@ public abstract class NaryGuardOperator extends Guard implements N_aryOp<Guard>
      * are either (in)equalities or memberships; <code>null</code> in all the other cases
      */
     public final ColorClass getSort() {
-        Map<ColorClass, Map<Boolean, SortedSet<Equality>>> c_e = equalityMap();
-		Map<ColorClass, Map<Boolean, Set<Membership>>> c_m = membMap();
-        int n1 = c_e.size(), n2 = c_m.size(), s;
-        if (n1 < 2 && n2 < 2 && (s = n1 + n2) > 0 && (s < 2 || c_e.keySet().equals(c_m.keySet())) )  {
-	        ColorClass cc = n1 == 1 ? c_e.keySet().iterator().next() : c_m.keySet().iterator().next();
-	        if (equality(cc,true).size() + equality(cc,false).size() + membership(cc,true).size() + membership(cc,false).size() == this.args.size())
-	        	return cc ;
+        final Map<ColorClass, GuardIndex> idx = guardIndex();
+        if (idx.size() == 1) {
+            final GuardIndex x = idx.values().iterator().next();
+            if (x.eqSize(true) + x.eqSize(false) + x.membSize() == this.args.size())
+                return x.getSort();
         }
         return null;
       }
@@ -2,6 +2,8 @@ package guard;
 
 import java.util.*;
 import logexpr.OrOp;
+import classfunction.Projection;
+import color.ColorClass;
 import expr.Domain;
 import util.Util;
 
@@ -101,4 +103,50 @@ public final class Or extends NaryGuardOperator implements OrOp<Guard> {
         this.disjoined = true;
     }
     
+    /**
+     * partition-completeness test on the atomic operands: the operands cover the domain
+     * if they include an elementary guard and its opposite, or if the memberships of a
+     * projection cover all the subclasses of its (split) color class
+     * (<code>X_1 in C1 + X_1 in C2</code>, with C partitioned into C1, C2); they don't
+     * if the operands are just memberships of the same projection, and a non-empty
+     * subclass is not covered; neither negations nor concrete bindings are computed
+     * @return <code>true</code> (<code>false</code>) if the operands surely (don't) cover
+     * the domain; <code>null</code> if the test is inconclusive
+     */
+    @Override
+    public Boolean coverage() {
+        final Set<? extends Guard> args = getArgs();
+        final Map<Projection, BitSet> covered = new HashMap<>(); // projection -> covered subclass indices
+        boolean onlyMemb = true;
+        for (Guard g : args) {
+            if (g instanceof ElementaryGuard e && args.contains(e.opposite()))
+                return true;
+            
+            if (g instanceof Membership m) {
+                final int n = m.getSort().subclasses();
+                final BitSet b = covered.computeIfAbsent(m.getArg1(), p -> new BitSet(n + 1));
+                if (m.sign())
+                    b.set(m.index());
+                else { // all but one subclass
+                    b.set(1, m.index());
+                    b.set(m.index() + 1, n + 1);
+                }
+                if (b.cardinality() == n)
+                    return true;
+            }
+            else
+                onlyMemb = false;
+        }
+        if (onlyMemb && covered.size() == 1) {
+            final Map.Entry<Projection, BitSet> x = covered.entrySet().iterator().next();
+            final ColorClass cc = x.getKey().getSort();
+            final BitSet b = x.getValue();
+            for (int i = b.nextClearBit(1); i <= cc.subclasses(); i = b.nextClearBit(i + 1))
+                if (cc.getConstraint(i).lb() > 0)
+                    return false;
+        }
+        
+        return null;
+    }
+    
 }
@@ -0,0 +1,299 @@
+package guard;
+
+import java.util.*;
+import classfunction.Projection;
+import classfunction.Subcl;
+import color.ColorClass;
+
+/**
+ * this class gives a compact representation of the subclass-domains of the
+ * variables (projections) of a given split color class, as described by a set
+ * of membership clauses: for each variable, the subclasses named in "in" and
+ * in "notin" clauses are encoded as two bitmasks (bit <code>i</code> stands
+ * for the <code>i</code>-th subclass), so that reasoning on memberships reduces
+ * to bit arithmetic; as masks are cached and shared, the bitmasks are never
+ * exposed: they are accessed through read-only queries
+ * @author Lorenzo Capra
+ */
+public final class SubclMask {
+
+    private static final BitSet EMPTY = new BitSet();
+
+    private final ColorClass cc;
+    private final Projection[] vars;
+    private final BitSet[] in, notin;
+
+    private SubclMask(ColorClass cc, Projection[] vars, BitSet[] in, BitSet[] notin) {
+        this.cc    = cc;
+        this.vars  = vars;
+        this.in    = in;
+        this.notin = notin;
+    }
+
+    /**
+     * builds the bitmask representation of a collection of membership clauses of a given color
+     * @param cc a color class
+     * @param memb a collection of membership clauses of color <code>cc</code>
+     * @return the subclass bitmask of the variables occurring in <code>memb</code>
+     */
+    public static SubclMask build(ColorClass cc, Collection<? extends Membership> memb) {
+        final int n = memb.size();
+        final Projection[] vars = new Projection[n];
+        final BitSet[] in = new BitSet[n], notin = new BitSet[n];
+        int size = 0;
+        for (Membership m : memb) {
+            final Projection p = m.getArg1();
+            int k = 0;
+            while (k < size && vars[k] != p) // projections are unique
+                ++k;
+            if (k == size) {
+                vars[size++] = p;
+                in[k] = new BitSet();
+                notin[k] = new BitSet();
+            }
+            (m.sign() ? in : notin)[k].set(m.index());
+        }
+
+        return size == n ? new SubclMask(cc, vars, in, notin) : new SubclMask(cc, Arrays.copyOf(vars, size), Arrays.copyOf(in, size), Arrays.copyOf(notin, size));
+    }
+
+    /**
+     * builds the bitmask representation of the memberships of a given color, grouped by sign
+     * (@see Guard.membMap)
+     * @param cc a color class
+     * @param mmap the memberships of color <code>cc</code>, grouped by sign
+     * @return the subclass bitmask of the variables occurring in <code>mmap</code>
+     */
+    public static SubclMask build(ColorClass cc, Map<Boolean, Set<Membership>> mmap) {
+        final Set<Membership> in = mmap.getOrDefault(true, Collections.emptySet()), notin = mmap.getOrDefault(false, Collections.emptySet());
+        if (notin.isEmpty())
+            return build(cc, in);
+
+        if (in.isEmpty())
+            return build(cc, notin);
+
+        final List<Membership> memb = new ArrayList<>(in);
+        memb.addAll(notin);
+
+        return build(cc, memb);
+    }
+
+    /**
+     * @return the color class of <code>this</code> bitmask
+     */
+    public ColorClass getSort() {
+        return this.cc;
+    }
+
+    /**
+     * @return the bitmask corresponding to the whole set of subclasses
+     */
+    public BitSet all() {
+        final BitSet all = new BitSet();
+        all.set(1, this.cc.subclasses() + 1);
+        return all;
+    }
+
+    /**
+     * @return the number of variables described by <code>this</code> bitmask
+     */
+    public int size() {
+        return this.vars.length;
+    }
+
+    /**
+     * @param k a position (between <code>0</code> and <code>size()-1</code>)
+     * @return the variable at the specified position
+     */
+    public Projection var(int k) {
+        return this.vars[k];
+    }
+
+    /*
+    the bitmask of the subclasses the k-th variable is bound to by clauses of given sign
+    */
+    private BitSet bits(int k, boolean sign) {
+        return sign ? this.in[k] : this.notin[k];
+    }
+
+    /**
+     * @param k a position (between <code>0</code> and <code>size()-1</code>)
+     * @param sign in/notin flag
+     * @return the number of subclasses the <code>k</code>-th variable is bound to by clauses of given sign
+     */
+    public int count(int k, boolean sign) {
+        return bits(k, sign).cardinality();
+    }
+
+    /**
+     * @param k a position (between <code>0</code> and <code>size()-1</code>)
+     * @param sign in/notin flag
+     * @param index a subclass index
+     * @return <code>true</code> if and only if the <code>k</code>-th variable is bound
+     * to the specified subclass by a clause of given sign
+     */
+    public boolean contains(int k, boolean sign, int index) {
+        return bits(k, sign).get(index);
+    }
+
+    /**
+     * @param k a position (between <code>0</code> and <code>size()-1</code>)
+     * @return <code>true</code> if and only if the <code>k</code>-th variable occurs
+     * in complementary clauses (<code>p in C_i, p notin C_i</code>)
+     */
+    public boolean clashes(int k) {
+        return this.in[k].intersects(this.notin[k]);
+    }
+
+    /*
+    the position of a variable (-1 if it doesn't occur)
+    */
+    private int indexOf(Projection p) {
+        for (int k = 0; k < this.vars.length; ++k)
+            if (this.vars[k] == p)
+                return k;
+
+        return -1;
+    }
+
+    /*
+    the bitmask of the clauses of given sign a variable occurs in (empty if there are none)
+    */
+    private BitSet bits(Projection p, boolean sign) {
+        final int k = indexOf(p);
+        return k < 0 ? EMPTY : bits(k, sign);
+    }
+
+    /**
+     * @param p a variable
+     * @param sign in/notin flag
+     * @return the (new) set of subclasses the variable is bound to by clauses of given sign
+     */
+    public Set<Subcl> subclasses(Projection p, boolean sign) {
+        return subclasses(bits(p, sign));
+    }
+
+    /**
+     * @param p1 a variable
+     * @param p2 another variable
+     * @param sign in/notin flag
+     * @return <code>true</code> if and only if the variables are bound to the same subclasses
+     * by clauses of given sign
+     */
+    public boolean sameSubclasses(Projection p1, Projection p2, boolean sign) {
+        return bits(p1, sign).equals(bits(p2, sign));
+    }
+
+    /**
+     * @param p1 a variable
+     * @param p2 another variable
+     * @param sign in/notin flag
+     * @return the (new) set of subclasses <code>p1</code> is bound to by clauses of given sign,
+     * whereas <code>p2</code> is not
+     */
+    public Set<Subcl> difference(Projection p1, Projection p2, boolean sign) {
+        final BitSet diff = (BitSet) bits(p1, sign).clone();
+        diff.andNot(bits(p2, sign));
+
+        return subclasses(diff);
+    }
+
+    /**
+     * @return <code>true</code> if and only if some variable occurs in a clause of the given sign
+     * @param sign in/notin flag
+     */
+    public boolean any(boolean sign) {
+        for (BitSet b : sign ? this.in : this.notin)
+            if (!b.isEmpty())
+                return true;
+
+        return false;
+    }
+
+    /**
+     * @param p a variable
+     * @return the subclass the variable is bound to by a (unique) "in" clause;
+     * <code>null</code> if there is no such clause
+     * @throws IllegalArgumentException if the variable occurs in many "in" clauses
+     */
+    public Subcl subcl(Projection p) {
+        final BitSet b = bits(p, true);
+        switch (b.cardinality()) {
+            case 0:
+                return null;
+            case 1:
+                return Subcl.factory(b.nextSetBit(0), this.cc);
+            default:
+                throw new IllegalArgumentException("many subclasses refer to the same symbol ("+p+"): "+this);
+        }
+    }
+
+    /*
+    the set of subclasses corresponding to a bitmask
+    */
+    private Set<Subcl> subclasses(BitSet bits) {
+        final Set<Subcl> set = new HashSet<>();
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1))
+            set.add(Subcl.factory(i, this.cc));
+
+        return set;
+    }
+
+    /**
+     * @param p a variable
+     * @param s a subclass
+     * @return <code>true</code> if and only if there is the clause <code>p notin s</code>
+     */
+    public boolean excludes(Projection p, Subcl s) {
+        return s != null && bits(p, false).get(s.index());
+    }
+
+    /**
+     * checks whether two variables surely have different colors, as they refer to
+     * different subclasses: either <code>p1 in C_i, p2 in C_j, i != j</code>,
+     * or <code>p1 in C_i, p2 notin C_i</code> (or vice-versa)
+     * @param p1 a variable
+     * @param p2 another variable
+     * @return <code>true</code> if and only if the variables refer to different subclasses
+     */
+    public boolean differentDom(Projection p1, Projection p2) {
+        final BitSet in1 = bits(p1, true), in2 = bits(p2, true);
+        if (!in1.isEmpty() && !in2.isEmpty())
+            return !in1.equals(in2);
+
+        return in1.intersects(bits(p2, false)) || in2.intersects(bits(p1, false));
+    }
+
+    /**
+     * checks whether all the variables of a (non empty) set are bound to the same
+     * (non empty) set of subclasses by clauses of a given sign
+     * @param vset a set of variables
+     * @param sign in/notin flag
+     * @return the (new) set of common subclasses, empty if the check fails
+     */
+    public Set<Subcl> commonSubclasses(Collection<? extends Projection> vset, boolean sign) {
+        BitSet common = EMPTY;
+        for (Projection p : vset) {
+            final int k = indexOf(p);
+            final BitSet b;
+            if (k < 0 || (b = bits(k, sign)).isEmpty() || !common.isEmpty() && !b.equals(common))
+                return new HashSet<>();
+
+            common = b;
+        }
+
+        return subclasses(common);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder(this.cc.name()).append('{');
+        for (int k = 0; k < this.vars.length; ++k) {
+            if (k > 0)
+                sb.append(", ");
+            sb.append(this.vars[k]).append(": ").append(this.in[k]).append('/').append(this.notin[k]);
+        }
+
+        return sb.append('}').toString();
+    }
+}
@@ -1,8 +1,7 @@
 package guard;
 
-import java.util.HashMap;
-import java.util.Map;
 import expr.Domain;
+import util.InternTable;
 
 /**
  * This class implements the "true" constant guard.
@@ -11,7 +10,7 @@ import expr.Domain;
  */
 public final class True extends ConstantGuard  {
     
-    private final static Map<Domain,True> VALUES = new HashMap<>();
+    private final static InternTable<Domain,True> VALUES = new InternTable<>("True");
     
     private final static String SYMBOL ="true";
 
@@ -28,11 +27,7 @@ public final class True extends ConstantGuard  {
      * @return a <tt>True</tt> constant of the given domain
      */
     public static final True getInstance(Domain dom) {
-        True g;
-        if ((g = VALUES.get(dom)) == null) 
-            VALUES.put(dom, g = new True(dom)) ;
-        
-        return g;
+        return VALUES.intern(dom, () -> new True(dom));
     }
     
     @Override
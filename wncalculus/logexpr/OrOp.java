@@ -74,6 +74,10 @@ public interface OrOp<E extends LogicalExpr> extends LogicalExpr, N_aryOp<E>  {
      */
     @Override
     default boolean truthEquivalent ( ) {
+        final Boolean cov = coverage();
+        if (cov != null)
+            return cov;
+        
         List<? extends E> args = Util.asList( getArgs() ); //
         //System.out.println("thruth equivalence: term size "+(args) ); //profiling
         LogicalExpr t = args.get(0), compl_t = (LogicalExpr) t.getTrue().diff(t). normalize(); // we take the complement of one term
@@ -82,6 +86,17 @@ public interface OrOp<E extends LogicalExpr> extends LogicalExpr, N_aryOp<E>  {
                          : contained (compl_t, args.subList(1, args.size()));
       }
     
+    /**
+     * cheap coverage test, deciding (whenever possible) whether the operands cover
+     * the whole domain without negating and normalizing <code>this</code> expression;
+     * it is called first by <code>truthEquivalent</code>
+     * @return <code>true</code> (<code>false</code>) if the operands surely (don't) cover
+     * the domain; <code>null</code> if the test is inconclusive
+     */
+    default Boolean coverage() {
+        return null;
+    }
+    
     @Override
     default E genSimplify ( ) {
         //System.out.println("OrOp (86)\n"+this);//debug*/
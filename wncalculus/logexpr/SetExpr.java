@@ -2,6 +2,7 @@ package logexpr;
 
 import bagexpr.LogicalBag;
 import bagexpr.SetComp;
+import expr.Polynomial;
 
 /**
  * This interface represents expressions (function) representing parametric sets
@@ -43,5 +44,14 @@ public interface SetExpr extends LogicalExpr {
         return null;
     }
     
+    /**
+     * @return the cardinality of <code>this</code> expression, as a polynomial in the
+     * (parametric) sizes of color classes; <code>null</code> if, for any reason, it
+     * cannot be computed 
+    */
+    default Polynomial cardPolynomial() {
+        return null;
+    }
+    
     
 }
@@ -16,11 +16,10 @@ import util.Util;
  */
 public abstract class AbstractTuple<E extends ClassFunction> implements Expression, Transposable  {
     //we assume that tuple's components color-classes are consistent: c1.equals(c2) <-> c1.compareTo(c2) (i.e. different colors must have different names)
-    private  final    SortedMap<ColorClass , List<? extends E>> hom_parts ; // the map between colors and homogenous sub-tuples composing this tuple 
+    private  final    TupleComponents<E> hom_parts ; // the (flat) homogenous sub-tuples composing this tuple 
     private  final    Guard   filter, guard; 
     //cache
     private String   str; // caching (to get efficiency when ordering)
-    private List<E>  components; //caching
     private boolean  simplified;
         
     /* checks for the tuple's parameters (the filter is trivial) */
@@ -50,18 +49,39 @@ public abstract class AbstractTuple<E extends ClassFunction> implements Expressi
      */
     public AbstractTuple (final Guard f, final SortedMap<ColorClass, List<? extends E>> m, final Guard g, /*final*/ boolean check) {
         //checkPar(f, m, g);
-        check = true; // check forzato: sistemare
-        final HashMap<ColorClass, Integer> tcd = buildTupleCodom(m, check ? g.getDomain() : null);
-        
-        if (f==null)
-            this.filter = True.getInstance(new Domain(tcd)); //messo per compatibilità con cli ...
-        else if (check && !tcd .equals( f.getDomain().asMap()))  // the tuple's codomain and the filter domain must coincide
-            throw new IllegalDomain (tcd+" and "+f.getDomain()+ ": derived and filter's domains incompatible!\nf: "+f); 
+        this(f, TupleComponents.of(m), g);
+    }
+    
+    /**
+     * creates a tuple with the same components as a given one (the components' representation is shared)
+     * @param f the tuple's filter
+     * @param t a tuple
+     * @param g the tuple's guard
+     * @throws IllegalDomain if there are some incongruences on the domains
+     */
+    protected AbstractTuple (final Guard f, final AbstractTuple<? extends E> t, final Guard g) {
+        this(f, (TupleComponents<E>) t.hom_parts, g);
+    }
+    
+    /**
+     * creates a tuple from the flat representation of its components 
+     * @param f the tuple's filter
+     * @param c the components
+     * @param g the tuple's guard
+     * @throws IllegalDomain if there are some incongruences on the domains
+     */
+    AbstractTuple (final Guard f, final TupleComponents<E> c, final Guard g) {
+        if (f==null) {
+            c.check(g.getDomain(), g.getDomain());
+            this.filter = True.getInstance(Domain.factory(c.codomain())); //messo per compatibilità con cli ...
+        }
+        else if (!c.check(g.getDomain(), f.getDomain()))  // the tuple's codomain and the filter domain must coincide
+            throw new IllegalDomain (c.codomain()+" and "+f.getDomain()+ ": derived and filter's domains incompatible!\nf: "+f); 
         else
             this.filter = f;
         
         this.guard  = g;
-        this.hom_parts = Collections.unmodifiableSortedMap(m);
+        this.hom_parts = c;
     }
     
     
@@ -118,11 +138,11 @@ public abstract class AbstractTuple<E extends ClassFunction> implements Expressi
      */
     public AbstractTuple (final SortedMap<ColorClass, List<? extends E>> m, final Guard g, /*final*/ boolean check) {
         checkPar(m,g);
-        check = true;
-        var tcd = buildTupleCodom(m, check ? g.getDomain() : null); 
-        this.filter =  True.getInstance(new Domain(tcd));
+        final TupleComponents<E> c = TupleComponents.of(m);
+        c.check(g.getDomain(), g.getDomain()); 
+        this.filter =  True.getInstance(Domain.factory(c.codomain()));
         this.guard  =  g;
-        this.hom_parts = Collections.unmodifiableSortedMap(m);
+        this.hom_parts = c;
     }
     
     /**
@@ -150,38 +170,6 @@ public abstract class AbstractTuple<E extends ClassFunction> implements Expressi
     }
     
      
-     /**
-      * infers the tuple's codomain from a map colors-(sub)tuples possibly checking the map againts a color domain
-      * representing the entire tuple's domain
-      * if the specified tuple's domain is <code>null</code> skips the checkPar
-      * @param <E> the type of tuple components
-      * @param map the map
-      * @param dom the tuple'd domain
-      * @return the tuple's codomain (as a map)
-      * @throws IllegalDomain if some variable index doesn't match the specified (non-null) domain
-      */
-     static <E extends ClassFunction> HashMap<ColorClass, Integer> buildTupleCodom (final SortedMap<ColorClass , List<? extends E>> map, final Domain dom) {
-            HashMap<ColorClass, Integer> tcd = new HashMap<>(); // the tcd's structure
-            map.entrySet().forEach((var entry) -> {
-                var st = entry.getValue();
-                if (st.isEmpty()) {
-                    throw new IllegalDomain();
-                }
-                else {
-                    var cc = entry.getKey();
-                    if (dom != null) {
-                        Set<? extends Integer> idxset = ClassFunction.indexSet(st); // the projection or_index set of st
-                        if (! idxset.isEmpty() && Collections.max(idxset)  > dom.mult(cc) )
-                            throw new IllegalDomain("failed tuple's building:\nincorrect domain specification (projection index outside the range of color "+cc+
-                                    "\ntuple components: "+st+"), domain: "+dom);
-                    }
-                    tcd.put(cc, st.size());
-                }
-           });
-        return tcd; 
-     }
-     
-    
     /**
      * builder method: build a tuple with the same components as <tt>this</tt>
      * @param filter a guard representing a filter
@@ -231,14 +219,14 @@ public abstract class AbstractTuple<E extends ClassFunction> implements Expressi
      * @return the unique color class, if the tuple is 1-sorted; <code>null</code> otherwise
      */
     public final ColorClass getSort() {
-        return this.hom_parts.size() == 1 ? this.hom_parts.keySet().iterator().next() : null;           
+        return this.hom_parts.singleColor();
     }
     
     /**
      * @return a view of the color-homogeneous parts of this tuple 
      */
     public final SortedMap<ColorClass, List<? extends E>> getHomSubTuples() {
-        return this.hom_parts;
+        return this.hom_parts.asMap();
     }
     
     /**
@@ -247,7 +235,9 @@ public abstract class AbstractTuple<E extends ClassFunction> implements Expressi
      * an empty list if there is no such a sub-list
      */
     public final List<? extends E> getHomSubTuple(ColorClass cc) {
-        return this.hom_parts.getOrDefault(cc, Collections.EMPTY_LIST);
+        final List<? extends E> l = this.hom_parts.of(cc);
+        
+        return l == null ? Collections.emptyList() : l;
     }
    
     /**
@@ -255,18 +245,7 @@ public abstract class AbstractTuple<E extends ClassFunction> implements Expressi
      * the list is ordered w.r.t. colour-classes
      */
     public final List<E> getComponents() {
-        if (this.components == null) {
-            var c = getSort();
-            if (c != null){
-                this.components = (List<E>) this.hom_parts.get(c);
-            }
-            else {
-                List<E> mycomps = new ArrayList<>();
-                this.hom_parts.entrySet().forEach(x -> {mycomps.addAll(x.getValue()); });
-                this.components = Collections.unmodifiableList(mycomps);
-            }
-        }
-        return this.components;
+        return this.hom_parts.all();
     }
             
     /**
@@ -329,6 +308,16 @@ public abstract class AbstractTuple<E extends ClassFunction> implements Expressi
         return build(this.filter, And.factory(this.guard, g));
     }
     
+    /**
+     * replaces the homogeneous sub-tuples of some colours, sharing the representation
+     * of the others with <code>this</code> tuple
+     * @param updates a map between colours and the new (non-empty) sub-tuples
+     * @return the flat representation of the resulting components
+     */
+    final TupleComponents<E> replaceComps (final Map<ColorClass, ? extends List<? extends E>> updates) {
+        return this.hom_parts.with(updates);
+    }
+    
     /**
      * eficiently clones the tuple's components
      * @param split_map a map from old and new sorts
@@ -336,7 +325,7 @@ public abstract class AbstractTuple<E extends ClassFunction> implements Expressi
      */
     protected final SortedMap<ColorClass, List<? extends E> > cloneComps (final  Map<Sort, Sort> split_map) {
         SortedMap<ColorClass, List<? extends E> > m = new TreeMap<>();
-        this.hom_parts.entrySet().forEach( (var x) -> {
+        getHomSubTuples().entrySet().forEach( (var x) -> {
             ColorClass cc = x.getKey(), n_cc = (ColorClass) split_map.get(cc);
             if (n_cc == null) { // color cc not mapped 
                 m.put(cc, x.getValue());
@@ -351,13 +340,14 @@ public abstract class AbstractTuple<E extends ClassFunction> implements Expressi
     
     @Override
     public final String toString () {
-        if (this.str == null) {
+        String s = this.str; // racy single-check (strings are immutable)
+        if (s == null) {
             var t = "<";
             t = getComponents().stream().map( x -> x.toString() + ',').reduce(t, String::concat);
             t = t.substring(0,t.length()-1)+'>';
-            this.str = (filter.isTrivial() ? "" : "[" + filter + ']')  + t + (guard.isTrivial() ? "" : "[" +guard + ']');
+            this.str = s = (filter.isTrivial() ? "" : "[" + filter + ']')  + t + (guard.isTrivial() ? "" : "[" +guard + ']');
         }
-        return this.str;
+        return s;
     }
     
     @Override
@@ -7,6 +7,7 @@ import color.ColorClass;
 import expr.Domain;
 import expr.Sort;
 import util.ComplexKey;
+import util.InternTable;
 
 /**
  * "singleton-like" class implementing universe-set tuples (that is, constant function-tuples
@@ -38,7 +39,7 @@ public final class AllTuple extends ConstantTuple {
         super(codom, dom);
     }
     
-    private static final Map<ComplexKey, AllTuple> AT_VALUES = new HashMap<>();
+    private static final InternTable<ComplexKey, AllTuple> AT_VALUES = new InternTable<>("AllTuple");
     
     /**
      * main builder method
@@ -47,14 +48,11 @@ public final class AllTuple extends ConstantTuple {
      * @return a constant function matching the universe
      */
     public static AllTuple getInstance(Domain codom, Domain dom) {
-        ComplexKey k = new ComplexKey(codom, dom);
-        AllTuple at = AT_VALUES.get(k);
-        if ( at == null) {
-            AT_VALUES.put(k, at = new AllTuple( codom, dom));
+        return AT_VALUES.intern(new ComplexKey(codom, dom), () -> {
+            final AllTuple at = new AllTuple( codom, dom);
             at.setSimplified(true); //OPTIMIZATION
-        }
-        
-        return at;
+            return at;
+        });
     }
     
     @Override
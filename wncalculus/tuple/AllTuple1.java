@@ -7,6 +7,7 @@ import color.ColorClass;
 import expr.Domain;
 import expr.Sort;
 import util.ComplexKey;
+import util.InternTable;
 
 /**
  * singleton-like class implementing "universe" tuples
@@ -38,7 +39,12 @@ public final class AllTuple1  implements FunctionTuple {
         codomain = codom;
     }
     
-    private static final Map<ComplexKey, AllTuple1> AT_VALUES = new HashMap<>();
+    @Override
+    public int hashCode() {
+        return 31 * this.codomain.hashCode() + this.domain.hashCode();
+    }
+    
+    private static final InternTable<ComplexKey, AllTuple1> AT_VALUES = new InternTable<>("AllTuple1");
     
     /**
      * build a "Universe" tuple
@@ -47,14 +53,11 @@ public final class AllTuple1  implements FunctionTuple {
      * @return a "Universe" tuple of the given co-domain
      */
     public static AllTuple1 getInstance(Domain codom, Domain dom) {
-        ComplexKey k = new ComplexKey(codom, dom);
-        AllTuple1 at = AT_VALUES.get(k);
-        if ( at == null) {
-            AT_VALUES.put(k, at = new AllTuple1( codom, dom));
+        return AT_VALUES.intern(new ComplexKey(codom, dom), () -> {
+            final AllTuple1 at = new AllTuple1( codom, dom);
             at.setSimplified(true); //OPTIMIZATION
-        }
-        
-        return at;
+            return at;
+        });
     }
     
     @Override
@@ -11,6 +11,7 @@ import expr.Sort;
 public abstract class ConstantTuple implements FunctionTuple {
     
     private final Domain dom, codom;
+    private final int hash; // pre-computed, doesn't vary between runs
     
     /**
      * build a <tt>ConstantTuple</tt> of given co-domain
@@ -20,6 +21,12 @@ public abstract class ConstantTuple implements FunctionTuple {
     protected ConstantTuple(Domain codom, Domain dom) {
         this.dom = dom;
         this.codom = codom;
+        this.hash = (31 * codom.hashCode() + dom.hashCode()) * 31 + getClass().getName().hashCode();
+    }
+    
+    @Override
+    public int hashCode() {
+        return this.hash;
     }
    
     @Override
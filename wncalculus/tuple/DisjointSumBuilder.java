@@ -0,0 +1,175 @@
+package tuple;
+
+import java.util.*;
+import classfunction.SetFunction;
+import classfunction.Subcl;
+import guard.And;
+import guard.ElementaryGuard;
+import guard.Guard;
+
+/**
+ * this class incrementally builds a sum of pair-wise disjoint function-tuples:
+ * each new operand is subtracted from the overlapping operands already present
+ * (as in @see LogicalExprs.disjoin), so that the disjointness invariant holds
+ * at any time; the operands which are certainly disjoint from the new one are
+ * skipped without any normalization, thanks to an index on constant components
+ * (different subclasses in the same position) and on elementary guards and filters
+ * (opposite elementary guards); it is not thread-safe
+ * @author Lorenzo Capra
+ */
+public final class DisjointSumBuilder {
+
+    private final List<FunctionTuple> terms = new ArrayList<>(); // the operands (null means removed)
+    private final BitSet live = new BitSet();
+    private final Map<Integer, Map<Subcl, BitSet>> constIndex = new HashMap<>(); // position -> subclass -> operands
+    private final Map<Guard, BitSet> guardIndex = new HashMap<>(), filterIndex = new HashMap<>(); // elementary guard -> operands
+    private boolean rewritten; // signals that the operands added were not pair-wise disjoint
+
+    /**
+     * adds an operand (assumed normalized) to the sum, preserving disjointness:
+     * the operand is subtracted from the overlapping operands; those including it
+     * are removed; if an operand includes it, it is not added
+     * @param t a function-tuple
+     * @return <code>true</code> if and only if the operand was disjoint from the
+     * sum's operands
+     */
+    public boolean add(final FunctionTuple t) {
+        if (t.isFalse()) {
+            return true;
+        }
+
+        boolean disjoint = true, included = false;
+        final BitSet candidates = candidates(t);
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            final FunctionTuple curr = this.terms.get(i);
+            final FunctionTuple in = (FunctionTuple) t.andFactory(t, curr).normalize();
+            if (!in.isFalse()) {
+                disjoint = false;
+                if (curr.equals(in)) { // t includes curr
+                    remove(i);
+                } else if (t.equals(in)) { // t is included in curr
+                    included = true;
+                    break;
+                } else {
+                    remove(i);
+                    put((FunctionTuple) curr.diff(t).normalize());
+                }
+            }
+        }
+        if (!included) {
+            insert(t);
+        }
+        this.rewritten |= !disjoint;
+
+        return disjoint;
+    }
+
+    /**
+     * @return <code>true</code> if and only if the operands added so far were not
+     * pair-wise disjoint, so that the sum has been rewritten
+     */
+    public boolean rewritten() {
+        return this.rewritten;
+    }
+
+    /**
+     * @return the number of operands of the sum
+     */
+    public int size() {
+        return this.live.cardinality();
+    }
+
+    /**
+     * @return the (pair-wise disjoint) operands of the sum, in insertion order
+     */
+    public List<FunctionTuple> terms() {
+        final List<FunctionTuple> res = new ArrayList<>(size());
+        for (int i = this.live.nextSetBit(0); i >= 0; i = this.live.nextSetBit(i + 1)) {
+            res.add(this.terms.get(i));
+        }
+
+        return res;
+    }
+
+    /**
+     * @return the (disjoint) sum of operands; either the only operand, if the sum is
+     * a singleton
+     * @throws NoSuchElementException if the sum is empty
+     */
+    public FunctionTuple build() {
+        return TupleSum.factory(terms(), true);
+    }
+
+    /*
+    puts the result of a difference, flattening (disjoint) sums
+    */
+    private void put(final FunctionTuple t) {
+        if (t instanceof TupleSum s && s.disjoined()) {
+            s.getArgs().forEach(this::insert);
+        } else if (!t.isFalse()) {
+            insert(t);
+        }
+    }
+
+    private void insert(final FunctionTuple t) {
+        final int i = this.terms.size();
+        this.terms.add(t);
+        this.live.set(i);
+        if (t instanceof Tuple tuple) {
+            final List<? extends SetFunction> comps = tuple.getComponents();
+            for (int p = 0; p < comps.size(); p++) {
+                if (comps.get(p) instanceof Subcl sc) {
+                    this.constIndex.computeIfAbsent(p, k -> new HashMap<>()).computeIfAbsent(sc, k -> new BitSet()).set(i);
+                }
+            }
+            elementaryArgs(tuple.guard()).forEach(g -> { this.guardIndex.computeIfAbsent(g, k -> new BitSet()).set(i); });
+            elementaryArgs(tuple.filter()).forEach(g -> { this.filterIndex.computeIfAbsent(g, k -> new BitSet()).set(i); });
+        }
+    }
+
+    private void remove(final int i) {
+        this.live.clear(i);
+        this.terms.set(i, null); // the index entries are filtered through live
+    }
+
+    /*
+    the operands which may overlap a given one
+    */
+    private BitSet candidates(final FunctionTuple t) {
+        final BitSet c = (BitSet) this.live.clone();
+        if (t instanceof Tuple tuple) {
+            final List<? extends SetFunction> comps = tuple.getComponents();
+            for (int p = 0; p < comps.size(); p++) {
+                final Map<Subcl, BitSet> m;
+                if (comps.get(p) instanceof Subcl sc && (m = this.constIndex.get(p)) != null) {
+                    m.forEach((x, b) -> {
+                        if (!x.equals(sc)) {
+                            c.andNot(b); // different subclasses are disjoint
+                        }
+                    });
+                }
+            }
+            exclude(c, elementaryArgs(tuple.guard()), this.guardIndex);
+            exclude(c, elementaryArgs(tuple.filter()), this.filterIndex);
+        }
+
+        return c;
+    }
+
+    private static void exclude(final BitSet c, final Set<? extends Guard> args, final Map<Guard, BitSet> index) {
+        for (Guard g : args) {
+            final BitSet b = index.get(((ElementaryGuard) g).opposite());
+            if (b != null) {
+                c.andNot(b);
+            }
+        }
+    }
+
+    /*
+    the operands of an elementary "AND" form; an empty set if the guard is trivial
+    or has a different form
+    */
+    private static Set<? extends Guard> elementaryArgs(final Guard g) {
+        return g == null || g.isTrivial() || !(g instanceof ElementaryGuard || g.isElemAndForm()) ? Collections.emptySet() : And.getArgs(g);
+    }
+}
@@ -4,6 +4,7 @@ import java.util.*;
 import expr.Domain;
 import expr.Sort;
 import util.ComplexKey;
+import util.InternTable;
 
 /**
  * "singleton-like" class implementing empty-set tuples (that is, constant function-tuples
@@ -19,9 +20,9 @@ public final class EmptyTuple extends ConstantTuple {
     }
     
     /**
-     * the hash-map used by the builder method (should be set private)
+     * the interning table used by the builder method
      */
-    public static final HashMap<ComplexKey, EmptyTuple> ET_VALUES = new HashMap<>();
+    private static final InternTable<ComplexKey, EmptyTuple> ET_VALUES = new InternTable<>("EmptyTuple");
     
     /**
      * main bulder method: creates an <tt>EmptyTuple</tt> with a given co-domain
@@ -30,14 +31,11 @@ public final class EmptyTuple extends ConstantTuple {
      * @return an <tt>EmptyTuple</tt> with a given co-domain
      */
     public static EmptyTuple getInstance(Domain codom, Domain dom) {
-        ComplexKey k = new ComplexKey(codom, dom);
-        EmptyTuple et = ET_VALUES.get(k);
-        if ( et == null) {
-            ET_VALUES.put(k, et = new EmptyTuple( codom, dom));
+        return ET_VALUES.intern(new ComplexKey(codom, dom), () -> {
+            final EmptyTuple et = new EmptyTuple( codom, dom);
             et.setSimplified(true); //OPTIMIZATION
-        }
-        
-        return et;
+            return et;
+        });
     }
     
     @Override
@@ -20,7 +20,10 @@ import util.Util;
  */
 public final class Tuple extends AbstractTuple<SetFunction> implements FunctionTuple, Cloneable {
 
+    private static final boolean[] SIGNS = {false, true}; // the order in which (in)equalities and memberships are scanned
+    
     private boolean reduce_guard; // signals whether the g has to "absorbed" into the tuple (default: false)
+    private volatile Optional<Polynomial> cardPoly; // caching of the (symbolic) cardinality
 
     /**
      * Builds a tuple from a list of class-functions, in which the order of
@@ -136,6 +139,28 @@ public final class Tuple extends AbstractTuple<SetFunction> implements FunctionT
         super(m, g, false);
     }
 
+    /**
+     * creates a tuple from the flat representation of its components
+     *
+     * @param f the tuple's f
+     * @param c the components
+     * @param g the tuple's g
+     */
+    Tuple(final Guard f, final TupleComponents<SetFunction> c, final Guard g) {
+        super(f, c, g);
+    }
+
+    /**
+     * creates a tuple with the same components as a given one
+     *
+     * @param f the tuple's f
+     * @param t a tuple
+     * @param g the tuple's g
+     */
+    Tuple(final Guard f, final Tuple t, final Guard g) {
+        super(f, t, g);
+    }
+
     /**
      * builds a tuple from a list of class-function, which set assumed to be of
      * a given color-class
@@ -187,9 +212,9 @@ public final class Tuple extends AbstractTuple<SetFunction> implements FunctionT
     /**
      * preserves the reduce_guard flag's value of <code>this</code> (new)
      */
-    private Tuple build(Guard f, SortedMap<ColorClass, List<? extends SetFunction>> m, Guard g) {
-        Tuple t = new Tuple(f, m, g);
-        t.reduce_guard = this.reduce_guard; //new!
+    private Tuple build(Guard f, TupleComponents<SetFunction> c, Guard g) {
+        Tuple t = new Tuple(f, c, g);
+        t.reduce_guard = this.reduce_guard;
 
         return t;
     }
@@ -237,14 +262,7 @@ public final class Tuple extends AbstractTuple<SetFunction> implements FunctionT
      * tuple's codomain
      */
     private Tuple build(Guard filter, ColorClass cc, List<? extends SetFunction> list, Guard guard) {
-        if (getHomSubTuple(cc) != null) {
-            SortedMap<ColorClass, List<? extends SetFunction>> map = new TreeMap<>(getHomSubTuples());
-            map.put(cc, list);
-
-            return build(filter, map, guard);
-        }
-
-        return null;
+        return build(filter, replaceComps(Collections.singletonMap(cc, list)), guard); // the other sub-tuples are shared
     }
 
     /**
@@ -257,7 +275,7 @@ public final class Tuple extends AbstractTuple<SetFunction> implements FunctionT
      */
     @Override
     public Tuple build(Guard filter, Guard guard) {
-        Tuple tuple = new Tuple(filter, getHomSubTuples(), guard);
+        Tuple tuple = new Tuple(filter, this, guard);
         tuple.reduce_guard = this.reduce_guard; //new!
 
         return tuple;
@@ -273,6 +291,30 @@ public final class Tuple extends AbstractTuple<SetFunction> implements FunctionT
         this.reduce_guard = flag;
     }
 
+    /**
+     * @return the reduce_guard flag
+     */
+    public boolean reduceGuard() {
+        return this.reduce_guard;
+    }
+
+    /**
+     * @param flag the reduce_guard flag's value
+     * @return <code>this</code>, if its reduce_guard flag has the given value;
+     * otherwise, a copy of <code>this</code> with the given flag (so that
+     * a possibly shared tuple is not modified)
+     */
+    public Tuple withReduceGuard(boolean flag) {
+        if (this.reduce_guard == flag) {
+            return this;
+        }
+        final Tuple t = build(filter(), guard());
+        t.reduce_guard = flag;
+        t.setSimplified(simplified());
+
+        return t;
+    }
+
     /**
      * checks whether the "null bound" for the f of <code>this</code> tuple set
      * exceeded or not: chromatic numbers and tuple components (representing
@@ -362,8 +404,8 @@ public final class Tuple extends AbstractTuple<SetFunction> implements FunctionT
             return getFalse();
         } else {
             var changed = false;
-            var equalityMap = simp_g.equalityMap();
-            final SortedMap<ColorClass, List<SetFunction>> tuplecopy = new TreeMap<>(); //si potrebbe ottimizzare
+            final var g_index = simp_g.guardIndex();
+            final Map<ColorClass, List<SetFunction>> tuplecopy = new HashMap<>(); // the sub-tuples which are reduced
             for (var x : getHomSubTuples().entrySet()) {
                 final var c = x.getKey();
                 final ArrayList<SetFunction> args_c = new ArrayList<>(x.getValue());
@@ -373,15 +415,18 @@ public final class Tuple extends AbstractTuple<SetFunction> implements FunctionT
                 if (Util.checkAny(args_c, f -> f instanceof Empty)) {
                     return getFalse();
                 }
-                for (var eq : equalityMap.getOrDefault(c, Collections.emptyMap()).getOrDefault(true, Collections.emptySortedSet())) {
-                    if (ClassFunction.replace(args_c, eq)) {
+                final GuardIndex gx = g_index.get(c);
+                for (var k = 0; gx != null && k < gx.eqSize(true); ++k) {
+                    if (ClassFunction.replace(args_c, gx.equality(true, k))) {
                         changed = true;
                     }
                 }
-                tuplecopy.put(c, args_c);
+                if (!args_c.equals(x.getValue())) {
+                    tuplecopy.put(c, args_c);
+                }
             }
             if (changed) {// some  tuple component have been reduced ..
-                return build(simp_f, Collections.unmodifiableSortedMap(tuplecopy), simp_g);
+                return build(simp_f, replaceComps(tuplecopy), simp_g);
             }
             if (!(simp_f.equals(filter()) && simp_g.equals(guard()))) {// the f or the g have been reduced ..
                 return build(simp_f, simp_g); //optimization (more efficient than previous bild ..)
@@ -392,7 +437,7 @@ public final class Tuple extends AbstractTuple<SetFunction> implements FunctionT
                 }
                 // the tuple doesn'tuple contain "OR" elements, neither in filters nor in its components
                 // no reduction/replacement carried out on the f/guard/components of this tuple
-                if (!this.reduce_guard && (res = TupleSum.factory(toConstSizeSum(equalityMap, simp_g.membMap()), true)) != this) { // questa semplificazione può essere critica come efficienza
+                if (!this.reduce_guard && (res = TupleSum.factory(toConstSizeSum(simp_g), true)) != this) { // questa semplificazione può essere critica come efficienza
                     //System.out.println("toConstSize->\n"+res); //debug
                     return res;
                 }
@@ -402,15 +447,14 @@ public final class Tuple extends AbstractTuple<SetFunction> implements FunctionT
                     }
                 }
                 if (simp_f.isElemAndForm()) {
-                    equalityMap = simp_f.equalityMap();
-                    if ((res = baseFilterReduction(equalityMap, simp_f.membMap())) != this) {
+                    if ((res = baseFilterReduction(simp_f.guardIndex())) != this) {
                         //System.out.println("->\n"+res); //debug
                         return res;
                     }
                     if (checkNullBound()) {
                         return getFalse();
                     }
-                    res = reduceFilterIneqs(equalityMap);// può essere critica come efficienza
+                    res = reduceFilterIneqs(simp_f.equalityMap());// può essere critica come efficienza
                     return res;
                 }
                 return this;
@@ -612,24 +656,25 @@ public final class Tuple extends AbstractTuple<SetFunction> implements FunctionT
      * inner intersections are brought into a constant-size form particular
      * cases in which the tuple set already "simple", or all of its components
      * need further reductions, a singleton list set returned;
+     * the combinations of simple functions are expanded lazily (depth-first),
+     * building the guard incrementally: prefixes whose guard is (trivially)
+     * contradictory are pruned, so that memory is proportional to the tuple's width
      *
      * @return an equivalent list of disjoint, simple tuples; a singleton
      * containing <code>this</code> tuple if no expansion has been performed
+     * (the empty tuple, if all the combinations are contradictory)
      */
-    private Collection<Tuple> toConstSizeSum(final Map<ColorClass, Map<Boolean, SortedSet<Equality>>> eq_map, final Map<ColorClass, Map<Boolean, Set<Membership>>> me_map) {
-        final Set<Tuple> sum = new HashSet<>();
+    private Collection<? extends FunctionTuple> toConstSizeSum(final Guard simp_g) {
+        final Map<ColorClass, Map<Boolean, SortedSet<Equality>>> eq_map = simp_g.equalityMap();
         final List< Set<? extends Pair<? extends SetFunction, ? extends Guard>>> list_of_sets = new ArrayList<>();
         final Domain dom = getDomain();
         boolean added_g = false; // signal that a guard has been added
         for (Map.Entry<ColorClass, List<? extends SetFunction>> x : getHomSubTuples().entrySet()) {
             final ColorClass c = x.getKey();
             final SortedSet<Equality> ineq_list = eq_map.getOrDefault(c, Collections.emptyMap()).getOrDefault(false, Collections.emptySortedSet());
-            final Map<Boolean, Set<Membership>> mx = me_map.getOrDefault(c, Collections.emptyMap());
-            final Map<Projection, Subcl> inmap = Membership.mapSymbolsNoRep(mx.getOrDefault(true, Collections.EMPTY_SET));
-            final Map<Projection, Set<Subcl>> notinmap = Membership.mapSymbols(mx.getOrDefault(false, Collections.EMPTY_SET));
-            //if (! (ineq_list.isEmpty() && inmap.isEmpty() && notinmap.isEmpty()) ) //possible optimization
+            final SubclMask mask = simp_g.subclMask(c);
             for (SetFunction f : x.getValue()) {
-                final var set = f.toSimpleFunctions(ineq_list, inmap, notinmap, dom);
+                final var set = f.toSimpleFunctions(ineq_list, mask, dom);
                 if (set.isEmpty()) {
                     list_of_sets.add(Collections.singleton(new Pair<>(f, True.getInstance(dom))));
                 } else {
@@ -639,27 +684,68 @@ public final class Tuple extends AbstractTuple<SetFunction> implements FunctionT
             }
         }
         if (!added_g) {
-            sum.add(this); // no expansion needed -- optimizationS
+            return Collections.singleton(this); // no expansion needed -- optimizationS
+        }
+        final Set<Tuple> sum = new HashSet<>();
+        final Set<Guard> t_guards = new HashSet<>();
+        final var g = guard();
+        if (g instanceof And and) {
+            t_guards.addAll(and.getArgs());
         } else {
-            Util.cartesianProd(list_of_sets).forEach((var list) -> {
-                final var t_guards = new HashSet<Guard>();
-                final var g = guard();
-                if (g instanceof And and) {
-                    t_guards.addAll(and.getArgs());
-                } else {
-                    t_guards.add(g);
-                }
-                final List<SetFunction> t_comps = new ArrayList<>();
-                for (Pair<? extends SetFunction, ? extends Guard> p : list) {
-                    t_comps.add(p.getKey());
-                    t_guards.add(p.getValue());
-                    //System.out.println(p.getValue());
-                }
-                sum.add(build(filter(), t_comps, And.factory(t_guards)));
-            });
+            t_guards.add(g);
         }
+        expand(list_of_sets, 0, new ArrayList<>(list_of_sets.size()), t_guards, sum);
 
-        return sum;
+        return sum.isEmpty() ? Collections.singleton(getFalse()) : sum;
+    }
+
+    /*
+    the depth-first expansion of toConstSizeSum: the components of the current
+    prefix are in t_comps, the guards in t_guards
+    */
+    private void expand(final List<Set<? extends Pair<? extends SetFunction, ? extends Guard>>> list_of_sets, final int level,
+            final List<SetFunction> t_comps, final Set<Guard> t_guards, final Set<Tuple> sum) {
+        if (level == list_of_sets.size()) {
+            sum.add(build(filter(), new ArrayList<>(t_comps), And.factory(t_guards)));
+            return;
+        }
+        for (Pair<? extends SetFunction, ? extends Guard> p : list_of_sets.get(level)) {
+            final Guard pg = p.getValue();
+            if (contradicts(pg, t_guards)) {
+                continue; // the prefix is pruned
+            }
+            final boolean added = !pg.isTrue() && t_guards.add(pg);
+            t_comps.add(p.getKey());
+            expand(list_of_sets, level + 1, t_comps, t_guards, sum);
+            t_comps.remove(level);
+            if (added) {
+                t_guards.remove(pg);
+            }
+        }
+    }
+
+    /*
+    a cheap contradiction check: either the guard is false, or it is elementary and
+    either its opposite is in the set, or it is an "in" membership of a variable that
+    belongs to another subclass
+    */
+    private static boolean contradicts(final Guard g, final Set<Guard> guards) {
+        if (g.isFalse()) {
+            return true;
+        }
+        if (g instanceof ElementaryGuard e) {
+            if (guards.contains(e.opposite())) {
+                return true;
+            }
+            if (e instanceof Membership m && m.sign()) {
+                for (Guard x : guards) {
+                    if (x instanceof Membership mx && mx.sign() && mx.getArg1() == m.getArg1() && mx.getArg2() != m.getArg2()) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
     }
 
     /**
@@ -709,36 +795,43 @@ public final class Tuple extends AbstractTuple<SetFunction> implements FunctionT
      * equalities 3) inequalities which refer to cardinality-one tuple
      * components ; IMPORTANT: should be called on tuples of constant-size form
      *
-     * @param equalityMap the filter's pre-computed equality map
-     * @param membMap the fulter's pre-computed membership map
+     * @param index the filter's pre-computed indexed view
      * @return an equivalent reduced tuple; <code>this</code> if no reductions
      * are done
      */
-    public FunctionTuple baseFilterReduction(Map<ColorClass, Map<Boolean, SortedSet<Equality>>> equalityMap, Map<ColorClass, Map<Boolean, Set<Membership>>> membMap) {
+    public FunctionTuple baseFilterReduction(Map<ColorClass, GuardIndex> index) {
         //System.out.println("tupla da ridurre (filtro):\n"+getHomSubTuples()); //debug
         final Collection<Guard> to_remove = new LinkedList<>();
-        final SortedMap<ColorClass, List<SetFunction>> tuple_copy = new TreeMap<>(); // a "copy" of this tuple'fc components set built cc_low_case by cc_low_case
+        final Map<ColorClass, List<SetFunction>> tuple_copy = new HashMap<>(); // the reduced sub-tuples, built cc_low_case by cc_low_case
         var reduced = false;
         ColorClass cc;
         int i;
         List<SetFunction> h_tuple;
-        for (var mx : membMap.entrySet()) {
-            h_tuple = new ArrayList<>(getHomSubTuple(cc = mx.getKey())); // the sub-tuple of cc_low_case cc_name
-            for (var my : mx.getValue().entrySet()) {
-                for (var m : my.getValue()) {
-                    h_tuple.set((i = m.firstIndex()) - 1, Intersection.factory(my.getKey() ? m.getArg2() : m.getArg2().opposite(), h_tuple.get(i - 1)));
-                    to_remove.add(m); // m removed from the f
-                    reduced = true;
+        for (var mx : index.values()) {
+            if (mx.membSize() == 0) {
+                continue;
+            }
+            h_tuple = new ArrayList<>(getHomSubTuple(cc = mx.getSort())); // the sub-tuple of cc_low_case cc_name
+            for (var sign : SIGNS) {
+                for (i = 1; i <= mx.maxMembIndex(); ++i) {
+                    for (var m : mx.memberships(i, sign)) {
+                        h_tuple.set(i - 1, Intersection.factory(sign ? m.getArg2() : m.getArg2().opposite(), h_tuple.get(i - 1)));
+                        to_remove.add(m); // m removed from the f
+                        reduced = true;
+                    }
                 }
             }
             tuple_copy.put(cc, h_tuple);
         }
-        for (var ex : equalityMap.entrySet()) {
-            if ((h_tuple = tuple_copy.get(cc = ex.getKey())) == null) {
+        for (var ex : index.values()) {
+            if (ex.eqSize(false) + ex.eqSize(true) == 0) {
+                continue;
+            }
+            if ((h_tuple = tuple_copy.get(cc = ex.getSort())) == null) {
                 h_tuple = new ArrayList<>(getHomSubTuple(cc));
             }
-            for (var ey : ex.getValue().entrySet()) {
-                for (var eq : ey.getValue()) {
+            for (var op : SIGNS) {
+                for (var eq : ex.equalities(op)) {
                     int j = eq.secondIndex(), exp_diff;
                     final SetFunction f_i = h_tuple.get((i = eq.firstIndex()) - 1), f_j = h_tuple.get(j - 1);
                     SetFunction succ_fi = f_i, succ_fj = f_j, inter;
@@ -747,7 +840,6 @@ public final class Tuple extends AbstractTuple<SetFunction> implements FunctionT
                         succ_fj = succ(exp_diff, f_j);
                     }
                     inter = inter(f_i, succ_fj);
-                    final var op = ey.getKey();
                     if (inter.isFalse()) { // i and j are disjoint components
                         if (op) {  //equality
                             return getFalse(); //the empty tuple
@@ -781,11 +873,7 @@ public final class Tuple extends AbstractTuple<SetFunction> implements FunctionT
                 new_args.removeAll(to_remove);
                 f = And.buildAndFormWithD(new_args, getCodomain());
             }
-            // we add remaining sub-tuples to the_copy
-            getHomSubTuples().entrySet().forEach(e -> {
-                tuple_copy.putIfAbsent(e.getKey(), (List<SetFunction>) e.getValue());
-            });
-            return new Tuple(f, Collections.unmodifiableSortedMap(tuple_copy), guard());
+            return new Tuple(f, replaceComps(tuple_copy), guard()); // the remaining sub-tuples are shared
         }
 
         return this;
@@ -926,7 +1014,7 @@ public final class Tuple extends AbstractTuple<SetFunction> implements FunctionT
                         final var cc = entry.getKey();
                         if (my_parts.get(cc) == null) {
                             restriction.add(cc);
-                            final var rdom = new Domain(cc, this.getDomain().mult(cc)); //restriction of the domain to cc
+                            final var rdom = Domain.factory(cc, this.getDomain().mult(cc)); //restriction of the domain to cc
                             final HashSet<Equality> s = new HashSet<>();
                             for (Entry<Boolean, SortedSet<Equality>> b : entry.getValue().entrySet()) {
                                 for (Equality g : b.getValue()) {
@@ -985,7 +1073,7 @@ public final class Tuple extends AbstractTuple<SetFunction> implements FunctionT
                         if (i != 1) {
                             comps = ClassFunction.setDefaultIndex(comps);
                         }
-                        final var l = new Tuple(Util.singleSortedMap(cc, comps), new Domain(cc)); //a copy of this tuple with index 1
+                        final var l = new Tuple(Util.singleSortedMap(cc, comps), Domain.factory(cc)); //a copy of this tuple with index 1
                         final var r = new Tuple(f_i, right.guard());
                         //r.setSimplified(true); //optimizations
                         ft = new TupleComposition(l, r);
@@ -1190,6 +1278,98 @@ public final class Tuple extends AbstractTuple<SetFunction> implements FunctionT
         return null;
     }
 
+    /**
+     * direct transpose of a tuple whose components are, colour by colour, a
+     * permutation of the domain's projections (possibly with successors), e.g.,
+     * &lt;X_2,X_3,X_1&gt;[X_1 != X_2]: the transpose is the inverse permutation
+     * (with opposite successors); the tuple's filter becomes the guard of the
+     * transpose, and the tuple's guard (if it is an elementary "AND" form) is
+     * rewritten as a guard too, by replacing each variable with the transpose's
+     * component at the same position; unlike the general algorithm, no intersections
+     * with the transpose's template are built, so the result is (in general) already
+     * in normal form
+     *
+     * @return the transpose of <code>this</code> tuple; <code>null</code> if
+     * <code>this</code> is not a permutation
+     */
+    private Tuple permutationTranspose() {
+        final Domain d = getDomain(), cd = getCodomain();
+        final SortedMap<ColorClass, List<? extends SetFunction>> parts = getHomSubTuples();
+        if (d.asMap().size() != parts.size()) {
+            return null;
+        }
+        final SortedMap<ColorClass, List<? extends SetFunction>> tr_parts = new TreeMap<>();
+        for (Map.Entry<ColorClass, List<? extends SetFunction>> entry : parts.entrySet()) {
+            final ColorClass cc = entry.getKey();
+            final List<? extends SetFunction> l = entry.getValue();
+            if (d.mult(cc) != l.size()) {
+                return null;
+            }
+            final SetFunction[] inv = new SetFunction[l.size()];
+            for (int i = 0; i < inv.length; i++) {
+                if (!(l.get(i) instanceof Projection p) || inv[p.getIndex() - 1] != null) {
+                    return null;
+                }
+                inv[p.getIndex() - 1] = Projection.builder(i + 1, -p.getSucc(), cc);
+            }
+            tr_parts.put(cc, Arrays.asList(inv));
+        }
+        final Guard f = filter();
+        final Set<Guard> tr_guard = new HashSet<>();
+        if (!positionsToDomain(guard(), tr_parts, cd, tr_guard)) { // the guard becomes the transpose's filter
+            return f.isTrivial() ? new Tuple(guard().clone(d), tr_parts, cd) : new Tuple(guard().clone(d), tr_parts, f);
+        }
+        if (!f.isTrivial()) {
+            tr_guard.add(f);
+        }
+
+        return new Tuple(True.getInstance(d), tr_parts, tr_guard.isEmpty() ? True.getInstance(cd) : (Guard) And.factory(tr_guard).normalize());
+    }
+
+    /**
+     * rewrites a guard referring to the positions of a tuple of projections as
+     * an equivalent guard on the tuple's domain, by replacing each variable with
+     * the tuple's component at the same position
+     *
+     * @param g a guard on the tuple's positions (i.e., the guard of the tuple)
+     * @param parts the tuple's components (projections)
+     * @param dom the tuple's domain
+     * @param res the collection the rewritten elementary guards are added to
+     * @return <code>false</code> if <code>g</code> is neither trivial nor an
+     * elementary "AND" form (nothing is added)
+     */
+    private static boolean positionsToDomain(final Guard g, final Map<ColorClass, List<? extends SetFunction>> parts, final Domain dom, final Collection<Guard> res) {
+        if (g.isTrivial()) {
+            return true;
+        }
+        if (!(g instanceof ElementaryGuard || g.isElemAndForm())) {
+            return false;
+        }
+        final List<Guard> args = new ArrayList<>();
+        for (Guard e : And.getArgs(g)) {
+            final Projection p1 = componentAt(((ElementaryGuard) e).getArg1(), parts);
+            switch (e) {
+                case Equality eq -> args.add(Equality.builder(p1, componentAt(eq.getArg2(), parts), eq.sign(), dom));
+                case Membership m -> args.add(Membership.build(p1, m.getArg2(), m.sign(), dom));
+                default -> {
+                    return false;
+                }
+            }
+        }
+        res.addAll(args);
+
+        return true;
+    }
+
+    /**
+     * @return the component at the position of a variable (with the variable's successor)
+     */
+    private static Projection componentAt(final Projection x, final Map<ColorClass, List<? extends SetFunction>> parts) {
+        final Projection c = (Projection) parts.get(x.getSort()).get(x.getIndex() - 1);
+
+        return Projection.builder(c.getIndex(), c.getSucc() + x.getSucc(), c.getSort());
+    }
+
     /**
      * implements the transpose algorithm for a Tuple, assumed to be in a
      * normal-and-form, and not containing the "empty" class-function
@@ -1198,6 +1378,10 @@ public final class Tuple extends AbstractTuple<SetFunction> implements FunctionT
      * @see isNormalAndForm
      */
     public Tuple transpose() {
+        final Tuple perm = permutationTranspose();
+        if (perm != null) {
+            return perm;
+        }
         if (LogicalExprs.isNormalAndForm(getComponents())) {
             final Domain d = getDomain(), cd = getCodomain();
             final SortedMap<ColorClass, List<? extends SetFunction>> tr_templ = AllTuple.toMap(d); //considers this.domain as codomain..
@@ -1290,6 +1474,17 @@ public final class Tuple extends AbstractTuple<SetFunction> implements FunctionT
     @Override
     public Integer cardLb() {
         final var filter = filter();
+        final var p = cardPolynomial();
+        if (p != null) {
+            try {
+                return Math.toIntExact(p.lb());
+            } catch (ArithmeticException e) {
+                if (filter.isTrivial()) {
+                    throw e;
+                }
+                return null;
+            }
+        }
         if (filter.isTrivial()) {
             return tupleCard();
         } else {
@@ -1318,6 +1513,113 @@ public final class Tuple extends AbstractTuple<SetFunction> implements FunctionT
         }
     }
 
+    /**
+     * computes the cardinality of <code>this</code> tuple as a polynomial in the
+     * (parametric) sizes of its color classes, valid for any size fitting the class
+     * constraints, in the same way as <code>cardLb</code>; the result is cached,
+     * and it is inherited (renamed) by split clones, so that the cardinality of
+     * a tuple is evaluated in constant time
+     * @return the cardinality of <code>this</code> tuple, as a polynomial;
+     * <code>null</code> if, for any reason, it cannot be computed (e.g., because
+     * the size of some component is not a polynomial)
+     */
+    public Polynomial cardPolynomial() {
+        var p = this.cardPoly;
+        if (p == null) {
+            this.cardPoly = p = Optional.ofNullable(computeCardPolynomial());
+        }
+        return p.orElse(null);
+    }
+
+    private Polynomial computeCardPolynomial() {
+        final var filtermap = filter().isTrivial() ? Collections.<ColorClass, Map<Boolean, SortedSet<Equality>>>emptyMap() : filter().equalityMap();
+        var card = Polynomial.ONE;
+        try {
+            for (var e : getHomSubTuples().entrySet()) { // for each C-component of the tuple
+                final var mc = filtermap.get(e.getKey());
+                final var comp_card = mc != null ? homComponentPolynomial(mc.get(true), mc.get(false), e.getValue()) : productOfCards(e.getValue(), null);
+                if (comp_card == null) {
+                    return null;
+                }
+                card = card.times(comp_card);
+            }
+        } catch (RuntimeException e) { // overflow, or a filter not in the expected form
+            return null;
+        }
+        return card;
+    }
+
+    /**
+     * @return the product of the symbolic cardinalities of the components of a
+     * homogeneous tuple, but those marked as "already considered"; <code>null</code>
+     * if any of them cannot be computed
+     */
+    private static Polynomial productOfCards(final List<? extends SetFunction> homtuple, final boolean[] considered) {
+        var card = Polynomial.ONE;
+        for (var i = 1; i <= homtuple.size(); ++i) {
+            if (considered == null || !considered[i]) {
+                final var p = homtuple.get(i - 1).cardPolynomial();
+                if (p == null) {
+                    return null;
+                }
+                card = card.times(p);
+            }
+        }
+        return card;
+    }
+
+    /**
+     * symbolic counterpart of <code>homComponentCard</code>: the chromatic polynomial
+     * of each component of the inequality graph is evaluated over the symbolic
+     * cardinality of the corresponding tuple components
+     * @return the cardinality of a color-component of a tuple associated with a
+     * corresponding f, as a polynomial; <code>null</code> if it cannot be computed
+     */
+    private static Polynomial homComponentPolynomial(final Set<? extends Equality> equalities, final Set<? extends Equality> inequalities, final List<? extends SetFunction> homtuple) {
+        final boolean alliset[] = new boolean[homtuple.size() + 1]; // the tuple'fc index set
+        final Map<Projection, Set<Projection>> eq_map = new HashMap<>();
+        var card = Polynomial.ONE;
+        if (equalities != null) {
+            equalities.forEach(e -> {
+                eq_map.computeIfAbsent(e.getArg1(), k -> new HashSet<>()).add(e.getArg2());
+            });
+        }
+        if (inequalities != null && !inequalities.isEmpty()) {
+            final var g = new InequalityGraph(inequalities);
+            for (var component : g.connectedComponents()) {
+                final var lambda = homtuple.get(component.iterator().next().getIndex() - 1).cardPolynomial();
+                if (lambda == null) {
+                    return null;
+                }
+                card = card.times(Polynomial.substitute(g.subGraph(component).chromCoefficients(), lambda));
+                setConsidered(alliset, component);
+                final var iterator = eq_map.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    final var e = iterator.next();
+                    if (component.contains(e.getKey())) {
+                        iterator.remove(); //optimization
+                        setConsidered(alliset, e.getValue());
+                        break; //optimization
+                    }
+                }
+            }
+        }
+        //we consider left equality classes
+        for (var e : eq_map.entrySet()) {
+            final var i = e.getKey().getIndex();
+            final var p = homtuple.get(i - 1).cardPolynomial();
+            if (p == null) {
+                return null;
+            }
+            card = card.times(p);
+            alliset[i] = true;
+            setConsidered(alliset, e.getValue());
+        }
+        //we consider left (i.e., "still to be considered") tuple'fc components
+        final var left = productOfCards(homtuple, alliset);
+        return left == null ? null : card.times(left);
+    }
+
     /**
      * @return the (lower-bound of) the cardinality of a color-component of a
      * tuple associated with a corresponding f; <code>null</code> if, for any
@@ -1467,7 +1769,12 @@ public final class Tuple extends AbstractTuple<SetFunction> implements FunctionT
 
     @Override
     public final Tuple clone(final Map<Sort, Sort> split_map) {
-        return new Tuple((Guard) filter().clone(split_map), super.cloneComps(split_map), (Guard) guard().clone(split_map));
+        final Tuple clone = new Tuple((Guard) filter().clone(split_map), super.cloneComps(split_map), (Guard) guard().clone(split_map));
+        final Optional<Polynomial> p = this.cardPoly;
+        if (p != null && p.isPresent()) // still valid, as split only restricts the class constraints
+            clone.cardPoly = Optional.of(p.get().rename(split_map));
+
+        return clone;
     }
 
 }
@@ -0,0 +1,280 @@
+package tuple;
+
+import java.util.*;
+import classfunction.ClassFunction;
+import color.ColorClass;
+import expr.Domain;
+import expr.IllegalDomain;
+
+/**
+ * this class implements the (immutable) flat representation of a tuple's components:
+ * one array holding the components, ordered w.r.t. colour-classes, and the offsets
+ * of the homogeneous sub-tuples; the map/list views used by tuples are built (once)
+ * on demand; replacing the sub-tuples of some colours copies just the array of components,
+ * whereas the colours, the offsets (if the sub-tuples' sizes don't change) and the
+ * other per-colour data are shared
+ * @author Lorenzo Capra
+ * @param <E> the type of components
+ */
+final class TupleComponents<E extends ClassFunction> {
+
+    private final ColorClass[] colors; // sorted
+    private final int[] offsets;       // the i-th sub-tuple ranges over [offsets[i], offsets[i+1])
+    private final Object[] comps;
+    private final int[] maxIndex;      // the max projection index of each sub-tuple (0 if there is no projection)
+    private final int hash;            // the same as that of the map view
+    //cache (views are immutable)
+    private List<E> all;
+    private List<E>[] views;
+    private SortedMap<ColorClass, List<? extends E>> map;
+
+    private TupleComponents(ColorClass[] colors, int[] offsets, Object[] comps, int[] maxIndex) {
+        this.colors   = colors;
+        this.offsets  = offsets;
+        this.comps    = comps;
+        this.maxIndex = maxIndex;
+        int h = 0;
+        for (int i = 0; i < colors.length; i++)
+            h += colors[i].hashCode() ^ listHash(comps, offsets[i], offsets[i + 1]);
+        this.hash = h;
+    }
+
+    /**
+     * @param <E> the type of components
+     * @param m a map between colours and (non-empty) homogeneous sub-tuples
+     * @return the flat representation of the map
+     * @throws IllegalDomain if some sub-tuple is empty
+     */
+    static <E extends ClassFunction> TupleComponents<E> of(SortedMap<ColorClass, ? extends List<? extends E>> m) {
+        final int n = m.size();
+        final ColorClass[] colors = new ColorClass[n];
+        final int[] offsets = new int[n + 1], maxIndex = new int[n];
+        int i = 0, size = 0;
+        for (Map.Entry<ColorClass, ? extends List<? extends E>> e : m.entrySet()) {
+            colors[i] = e.getKey();
+            size += e.getValue().size();
+            offsets[++i] = size;
+        }
+        final Object[] comps = new Object[size];
+        i = 0;
+        for (List<? extends E> l : m.values()) {
+            copy(l, comps, offsets[i]);
+            maxIndex[i++] = maxIndex(l);
+        }
+
+        return new TupleComponents<>(colors, offsets, comps, maxIndex);
+    }
+
+    private static void copy(List<?> l, Object[] dest, int from) {
+        if (l.isEmpty())
+            throw new IllegalDomain();
+
+        for (Object f : l)
+            dest[from++] = f;
+    }
+
+    private static int maxIndex(List<? extends ClassFunction> l) {
+        final Set<? extends Integer> idxset = ClassFunction.indexSet(l);
+
+        return idxset.isEmpty() ? 0 : Collections.max(idxset);
+    }
+
+    private static int listHash(Object[] a, int from, int to) {
+        int h = 1;
+        for (int i = from; i < to; i++)
+            h = 31 * h + a[i].hashCode();
+
+        return h;
+    }
+
+    /**
+     * @param cc a colour
+     * @return the position of the colour; -1 if the colour is not present
+     */
+    private int indexOf(ColorClass cc) {
+        for (int i = 0; i < this.colors.length; i++) // tuples have a few colours: a linear search is fine
+            if (this.colors[i] == cc)
+                return i;
+
+        for (int i = 0; i < this.colors.length; i++)
+            if (this.colors[i].compareTo(cc) == 0)
+                return i;
+
+        return -1;
+    }
+
+    /**
+     * replaces the homogeneous sub-tuples of some colours
+     * @param updates a map between (present) colours and the new sub-tuples
+     * @return the representation with the specified sub-tuples, sharing what is unchanged
+     * with <code>this</code>
+     * @throws IllegalDomain if some sub-tuple is empty
+     */
+    TupleComponents<E> with(Map<ColorClass, ? extends List<? extends E>> updates) {
+        if (updates.isEmpty())
+            return this;
+
+        final int n = this.colors.length;
+        final List<List<? extends E>> newparts = new ArrayList<>(Collections.nCopies(n, null)); // null means unchanged
+        boolean resized = false;
+        for (Map.Entry<ColorClass, ? extends List<? extends E>> e : updates.entrySet()) {
+            final int i = indexOf(e.getKey());
+            if (i < 0) { // a new colour: the representation is rebuilt
+                final SortedMap<ColorClass, List<? extends E>> m = new TreeMap<>(asMap());
+                m.putAll(updates);
+                return of(m);
+            }
+            newparts.set(i, e.getValue());
+            resized |= e.getValue().size() != this.offsets[i + 1] - this.offsets[i];
+        }
+        int[] offsets = this.offsets;
+        if (resized) {
+            offsets = new int[n + 1];
+            for (int i = 0; i < n; i++)
+                offsets[i + 1] = offsets[i] + (newparts.get(i) == null ? this.offsets[i + 1] - this.offsets[i] : newparts.get(i).size());
+        }
+        final Object[] comps = new Object[offsets[n]];
+        final int[] maxIndex = this.maxIndex.clone();
+        for (int i = 0; i < n; i++) {
+            final List<? extends E> l = newparts.get(i);
+            if (l == null) {
+                System.arraycopy(this.comps, this.offsets[i], comps, offsets[i], this.offsets[i + 1] - this.offsets[i]);
+            }
+            else {
+                copy(l, comps, offsets[i]);
+                maxIndex[i] = maxIndex(l);
+            }
+        }
+
+        return new TupleComponents<>(this.colors, offsets, comps, maxIndex);
+    }
+
+    /**
+     * @return the only colour of a 1-sorted tuple; <code>null</code> otherwise
+     */
+    ColorClass singleColor() {
+        return this.colors.length == 1 ? this.colors[0] : null;
+    }
+
+    /**
+     * checks the components against the tuple's (co-)domain
+     * @param dom the tuple's domain; <code>null</code> means no check
+     * @param codom the tuple's codomain
+     * @return <code>true</code> if and only if the sub-tuples' sizes match the codomain
+     * @throws IllegalDomain if some projection index is outside the range of the domain
+     */
+    boolean check(Domain dom, Domain codom) {
+        if (dom != null)
+            for (int i = 0; i < this.colors.length; i++)
+                if (this.maxIndex[i] > dom.mult(this.colors[i]))
+                    throw new IllegalDomain("failed tuple's building:\nincorrect domain specification (projection index outside the range of color "+this.colors[i]+
+                            "\ntuple components: "+get(i)+"), domain: "+dom);
+
+        return matches(codom);
+    }
+
+    /**
+     * @param codom a domain
+     * @return <code>true</code> if and only if the sub-tuples' sizes match the domain
+     */
+    boolean matches(Domain codom) {
+        if (codom.asMap().size() != this.colors.length)
+            return false;
+
+        for (int i = 0; i < this.colors.length; i++)
+            if (codom.mult(this.colors[i]) != this.offsets[i + 1] - this.offsets[i])
+                return false;
+
+        return true;
+    }
+
+    /**
+     * @return the map between colours and sub-tuples' sizes (i.e., the tuple's codomain)
+     */
+    HashMap<ColorClass, Integer> codomain() {
+        final HashMap<ColorClass, Integer> tcd = new HashMap<>();
+        for (int i = 0; i < this.colors.length; i++)
+            tcd.put(this.colors[i], this.offsets[i + 1] - this.offsets[i]);
+
+        return tcd;
+    }
+
+    /**
+     * @return (an unmodifiable view of) the components, ordered w.r.t. colour-classes
+     */
+    List<E> all() {
+        List<E> l = this.all; // racy single-check (views are immutable)
+        if (l == null) {
+            @SuppressWarnings("unchecked") // safe: the array is filled (by of and with) only with elements of type E, and is never written to afterwards
+            final List<E> comps = (List<E>) (List<?>) Arrays.asList(this.comps);
+            this.all = l = Collections.unmodifiableList(comps);
+        }
+
+        return l;
+    }
+
+    /*
+    the i-th sub-tuple
+    */
+    private List<E> get(int i) {
+        List<E>[] v = this.views;
+        if (v == null) {
+            @SuppressWarnings("unchecked") // safe: the (private) array only holds views of type List<E>, and is never exposed
+            final List<E>[] nv = (List<E>[]) new List<?>[this.colors.length];
+            this.views = v = nv;
+        }
+        List<E> l = v[i];
+        if (l == null)
+            v[i] = l = this.colors.length == 1 ? all() : all().subList(this.offsets[i], this.offsets[i + 1]);
+
+        return l;
+    }
+
+    /**
+     * @param cc a colour
+     * @return (an unmodifiable view of) the sub-tuple of the colour; <code>null</code>
+     * if the colour is not present
+     */
+    List<E> of(ColorClass cc) {
+        final int i = indexOf(cc);
+
+        return i < 0 ? null : get(i);
+    }
+
+    /**
+     * @return an unmodifiable map view of the homogeneous sub-tuples
+     */
+    SortedMap<ColorClass, List<? extends E>> asMap() {
+        SortedMap<ColorClass, List<? extends E>> m = this.map;
+        if (m == null) {
+            final SortedMap<ColorClass, List<? extends E>> tm = new TreeMap<>();
+            for (int i = 0; i < this.colors.length; i++)
+                tm.put(this.colors[i], get(i));
+            this.map = m = Collections.unmodifiableSortedMap(tm);
+        }
+
+        return m;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+
+        if (!(o instanceof TupleComponents))
+            return false;
+
+        final TupleComponents<?> t = (TupleComponents<?>) o;
+        return this.hash == t.hash && Arrays.equals(this.offsets, t.offsets) && Arrays.equals(this.colors, t.colors) && Arrays.equals(this.comps, t.comps);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    @Override
+    public String toString() {
+        return asMap().toString();
+    }
+}
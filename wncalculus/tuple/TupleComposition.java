@@ -3,6 +3,8 @@ package tuple;
 import expr.*;
 import logexpr.LogComposition;
 import logexpr.SetExpr;
+import util.ComplexKey;
+import util.MemoTable;
 import wnbag.FunctionTupleBag;
 
 
@@ -14,9 +16,11 @@ public final class TupleComposition implements FunctionTuple, LogComposition<Fun
     
     private FunctionTuple left , right;
     private boolean simplified;
+    // the results of compositions between tuples (null, if not solved), keyed on operands and their reduce_guard flags
+    private static final MemoTable<ComplexKey, FunctionTuple> RESULTS = new MemoTable<>("TupleComposition");
     
     /** creates a new composition between function-tuples after having possibly checked that the (co)domains are consistent
-     * if the left operand is a Tuple its "reduce guard" flag is set up
+     * if the left operand is a Tuple its "reduce guard" flag is set up (on a copy)
      * @param left the left operand
      * @param right the right operand
      * @param check domain-check flag
@@ -53,12 +57,24 @@ public final class TupleComposition implements FunctionTuple, LogComposition<Fun
     }
     
     private void setArgs(FunctionTuple left, FunctionTuple right) {
-        this.left   = left;
-        if (left instanceof Tuple) //new
-            ((Tuple)this.left).setReduceGuard(true);
+        this.left   = left instanceof Tuple t ? t.withReduceGuard(true) : left; // the operand (possibly shared) is not modified
         this.right  = right;
     }
     
+    /**
+     * memoized version of <code>Tuple.compose</code>: compositions between the same
+     * operands (with the same reduce_guard flags) are solved (or fail) once per session
+     * @param left the left tuple
+     * @param right the right tuple
+     * @return the result of composition; <code>null</code> if the composition cannot be solved
+     */
+    private static FunctionTuple compose(Tuple left, Tuple right) {
+        return RESULTS.get(new ComplexKey(left, right, left.reduceGuard(), right.reduceGuard()), () -> {
+            final FunctionTuple res = left.compose(right);
+            return res instanceof Tuple t ? t.withReduceGuard(false) : res; // default condition (not needed?)
+        });
+    }
+    
     @Override
     public FunctionTuple specSimplify() {
         if ( left instanceof FilteredTuple ) {
@@ -67,9 +83,7 @@ public final class TupleComposition implements FunctionTuple, LogComposition<Fun
         } else { 
             //System.out.println("***\n"+this);
             FunctionTuple res;
-            if (left.isTuple() && right.isTuple() && (res = left.asTuple().compose(right.asTuple())) != null ) {
-                if ( res instanceof Tuple) //the composition has been solved
-                    ((Tuple)res).setReduceGuard(false); // default condition (not needed?)
+            if (left.isTuple() && right.isTuple() && (res = compose(left.asTuple(), right.asTuple())) != null ) {
                 //System.out.println("\n-->\n"+res);
                 return res ;
             }
@@ -0,0 +1,355 @@
+package tuple;
+
+import java.util.*;
+import bagexpr.LogicalBag;
+import classfunction.*;
+import color.ColorClass;
+import expr.Domain;
+import expr.Sort;
+import guard.GuardEvaluator;
+import guard.True;
+import util.IntMultiset;
+
+/**
+ * this class compiles (normalized) tuples, or bags of tuples, into evaluators over
+ * concrete color bindings (@see GuardEvaluator, for the layout of bindings and the
+ * meaning of sizes); the components of a tuple are compiled into bitset operations
+ * over the elements of color classes, the guard and the filter into predicates;
+ * the result of an evaluation is the multiset of color tuples of the codomain,
+ * each one encoded as an <code>int</code> in the same way as bindings are enumerated
+ * (lexicographically, the last position varying fastest): e.g., for a codomain
+ * <code>C^2</code>, <code>|C| = 3</code>, the tuple <code>&lt;1,2&gt;</code> is 5;
+ * the components supported are projections (successors), their complements,
+ * subclasses, constants, successors, complements, intersections and unions;
+ * an evaluator holds some scratch data, so it must not be shared among threads
+ * @author Lorenzo Capra
+ */
+public final class TupleEvaluator {
+
+    /*
+    a compiled class-function, which writes its value on a binding into a bitset
+    */
+    @FunctionalInterface
+    private interface SetEval {
+        void eval(int[] b, BitSet out);
+    }
+
+    /*
+    a compiled tuple, with its multiplicity
+    */
+    private static final class Term {
+        private final GuardEvaluator guard, filter;
+        private final SetEval[] comps;
+        private final BitSet[] sets; // scratch
+        private final int mult;
+
+        Term(GuardEvaluator guard, GuardEvaluator filter, SetEval[] comps, int mult) {
+            this.guard = guard;
+            this.filter = filter;
+            this.comps = comps;
+            this.mult = mult;
+            this.sets = new BitSet[comps.length];
+            for (int i = 0; i < comps.length; i++)
+                this.sets[i] = new BitSet();
+        }
+    }
+
+    private final Domain dom, codom;
+    private final Term[] terms;
+    private final int[] radix, codradix, weight; // the class sizes of domain/codomain positions, the weights of codomain positions
+    private final int[] tuple; // scratch
+    private final int card;    // the number of codomain tuples
+
+    private TupleEvaluator(Domain dom, Domain codom, Map<? extends FunctionTuple, Integer> m, Map<? extends ColorClass, int[]> sizes) {
+        this.dom = dom;
+        this.codom = codom;
+        final List<Term> tl = new ArrayList<>();
+        m.forEach((f, k) -> {
+            if (f instanceof Tuple t)
+                tl.add(compile(t, k, sizes));
+            else if (!(f instanceof EmptyTuple))
+                throw new IllegalArgumentException("cannot evaluate (not a normalized tuple): "+f);
+        });
+        this.terms = tl.toArray(new Term[tl.size()]);
+        final GuardEvaluator de = GuardEvaluator.compile(True.getInstance(dom), sizes), ce = GuardEvaluator.compile(True.getInstance(codom), sizes);
+        this.radix = radix(dom, de);
+        this.codradix = radix(codom, ce);
+        this.weight = new int[this.codradix.length];
+        long w = 1;
+        for (int i = this.codradix.length - 1; i >= 0; i--) {
+            this.weight[i] = (int) w;
+            if ((w *= this.codradix[i]) > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("too many codomain tuples: "+codom+" "+sizes);
+        }
+        this.card = (int) w;
+        this.tuple = new int[this.codradix.length];
+    }
+
+    /*
+    the class sizes of the positions of bindings
+    */
+    private static int[] radix(Domain d, GuardEvaluator e) {
+        final int[] r = new int[e.width()];
+        int k = 0;
+        for (Map.Entry<Sort, Integer> x : new TreeMap<Sort, Integer>(d.asMap()).entrySet())
+            for (int i = 0; i < x.getValue(); i++)
+                r[k++] = e.size((ColorClass) x.getKey());
+
+        return r;
+    }
+
+    private static Term compile(Tuple t, int mult, Map<? extends ColorClass, int[]> sizes) {
+        final GuardEvaluator g = GuardEvaluator.compile(t.guard(), sizes), f = GuardEvaluator.compile(t.filter(), sizes);
+        final List<SetFunction> l = t.getComponents();
+        final SetEval[] comps = new SetEval[l.size()];
+        for (int i = 0; i < comps.length; i++)
+            comps[i] = compile(l.get(i), g, f.subclBounds(l.get(i).getSort()));
+
+        return new Term(g, f, comps, mult);
+    }
+
+    /*
+    compiles a class-function, given the guard evaluator (for the positions of variables)
+    and the subclass bounds of its color
+    */
+    private static SetEval compile(SetFunction fun, GuardEvaluator g, int[] sb) {
+        final int n = sb[sb.length - 1];
+        switch (fun) {
+            case Projection p -> {
+                final int pos = g.position(p.getSort(), p.getIndex()), s = p.getSucc();
+                return (b, out) -> { out.clear(); out.set(Math.floorMod(b[pos] + s, n)); };
+            }
+            case ProjectionComp pc -> {
+                final Projection p = pc.getArg();
+                final int pos = g.position(p.getSort(), p.getIndex()), s = p.getSucc();
+                return (b, out) -> { out.set(0, n); out.clear(Math.floorMod(b[pos] + s, n)); };
+            }
+            case Subcl sc -> {
+                final int lo = sb[sc.index() - 1], hi = sb[sc.index()];
+                return (b, out) -> { out.clear(); out.set(lo, hi); };
+            }
+            case All all -> {
+                return (b, out) -> { out.set(0, n); };
+            }
+            case Empty e -> {
+                return (b, out) -> { out.clear(); };
+            }
+            case Successor sf -> {
+                final SetEval arg = compile(sf.getArg(), g, sb);
+                final int k = Math.floorMod(sf.getExp(), n);
+                final BitSet tmp = new BitSet(n);
+                return (b, out) -> {
+                    arg.eval(b, tmp);
+                    out.clear();
+                    for (int x = tmp.nextSetBit(0); x >= 0; x = tmp.nextSetBit(x + 1))
+                        out.set((x + k) % n);
+                };
+            }
+            case Complement c -> {
+                final SetEval arg = compile(c.getArg(), g, sb);
+                return (b, out) -> { arg.eval(b, out); out.flip(0, n); };
+            }
+            case Intersection in -> {
+                final SetEval[] args = compile(in.getArgs(), g, sb);
+                final BitSet tmp = new BitSet(n);
+                return (b, out) -> {
+                    args[0].eval(b, out);
+                    for (int i = 1; i < args.length && !out.isEmpty(); i++) {
+                        args[i].eval(b, tmp);
+                        out.and(tmp);
+                    }
+                };
+            }
+            case Union u -> {
+                final SetEval[] args = compile(u.getArgs(), g, sb);
+                final BitSet tmp = new BitSet(n);
+                return (b, out) -> {
+                    args[0].eval(b, out);
+                    for (int i = 1; i < args.length; i++) {
+                        args[i].eval(b, tmp);
+                        out.or(tmp);
+                    }
+                };
+            }
+            default -> throw new IllegalArgumentException("cannot evaluate the class-function: "+fun);
+        }
+    }
+
+    private static SetEval[] compile(Collection<? extends SetFunction> c, GuardEvaluator g, int[] sb) {
+        final SetEval[] args = new SetEval[c.size()];
+        int i = 0;
+        for (SetFunction f : c)
+            args[i++] = compile(f, g, sb);
+
+        return args;
+    }
+
+    /**
+     * compiles a (normalized) tuple
+     * @param t a tuple
+     * @param sizes a map between (some) colors and the sizes of their subclasses
+     * (for any missing color, the lower bounds of the subclass constraints are taken)
+     * @return the compiled tuple
+     * @throws IllegalArgumentException if the sizes are not consistent with constraints,
+     * there are too many codomain tuples, or the tuple contains unexpected operators
+     */
+    public static TupleEvaluator compile(Tuple t, Map<? extends ColorClass, int[]> sizes) {
+        return new TupleEvaluator(t.getDomain(), t.getCodomain(), Collections.singletonMap(t, 1), sizes);
+    }
+
+    /**
+     * compiles a (normalized) bag of tuples, e.g., a <code>FunctionTupleBag</code>
+     * @param bag a bag whose terms are tuples
+     * @param sizes a map between (some) colors and the sizes of their subclasses
+     * (for any missing color, the lower bounds of the subclass constraints are taken)
+     * @return the compiled bag
+     * @throws IllegalArgumentException if the sizes are not consistent with constraints,
+     * there are too many codomain tuples, or some term is not a tuple
+     */
+    public static TupleEvaluator compile(LogicalBag<? extends FunctionTuple> bag, Map<? extends ColorClass, int[]> sizes) {
+        return new TupleEvaluator(bag.getDomain(), bag.getCodomain(), bag.asMap(), sizes);
+    }
+
+    /**
+     * @return the domain of the compiled term
+     */
+    public Domain getDomain() {
+        return this.dom;
+    }
+
+    /**
+     * @return the codomain of the compiled term
+     */
+    public Domain getCodomain() {
+        return this.codom;
+    }
+
+    /**
+     * @return the number of bindings of the domain
+     * @throws ArithmeticException if the number overflows
+     */
+    public long bindings() {
+        long k = 1;
+        for (int r : this.radix)
+            k = Math.multiplyExact(k, r);
+
+        return k;
+    }
+
+    /**
+     * @return the number of color tuples of the codomain (the range of encodings)
+     */
+    public int codomainSize() {
+        return this.card;
+    }
+
+    /**
+     * @param code the encoding of a codomain tuple
+     * @return the decoded tuple (class elements, in the same layout as bindings)
+     */
+    public int[] decode(int code) {
+        final int[] t = new int[this.weight.length];
+        for (int i = 0; i < t.length; i++) {
+            t[i] = code / this.weight[i];
+            code %= this.weight[i];
+        }
+
+        return t;
+    }
+
+    /**
+     * evaluates the compiled term on a binding
+     * @param binding a binding of the domain's variables
+     * @param out the multiset the (encoded) codomain tuples are added to
+     */
+    public void evaluate(int[] binding, IntMultiset out) {
+        for (Term t : this.terms)
+            if (t.guard.test(binding))
+                emit(t, binding, out);
+    }
+
+    /**
+     * evaluates the compiled term on a binding
+     * @param binding a binding of the domain's variables
+     * @return the multiset of (encoded) codomain tuples
+     */
+    public IntMultiset evaluate(int[] binding) {
+        final IntMultiset res = new IntMultiset();
+        evaluate(binding, res);
+
+        return res;
+    }
+
+    /*
+    enumerates the cartesian product of the components' values, filtering it
+    */
+    private void emit(Term t, int[] binding, IntMultiset out) {
+        final BitSet[] sets = t.sets;
+        final int[] cur = this.tuple;
+        final int l = sets.length;
+        for (int i = 0; i < l; i++) {
+            t.comps[i].eval(binding, sets[i]);
+            if ((cur[i] = sets[i].nextSetBit(0)) < 0)
+                return; // an empty component
+        }
+        while (true) {
+            if (t.filter.test(cur)) {
+                int code = 0;
+                for (int i = 0; i < l; i++)
+                    code += cur[i] * this.weight[i];
+                out.add(code, t.mult);
+            }
+            int pos = l - 1;
+            for (int nxt; pos >= 0 && (nxt = sets[pos].nextSetBit(cur[pos] + 1)) < 0; pos--) // next tuple
+                cur[pos] = sets[pos].nextSetBit(0);
+            if (pos < 0)
+                return;
+
+            cur[pos] = sets[pos].nextSetBit(cur[pos] + 1);
+        }
+    }
+
+    /**
+     * evaluates the compiled term on all the bindings of the domain, enumerated in
+     * lexicographic order (the last position varies fastest)
+     * @return the array of multisets of (encoded) codomain tuples, the <code>k</code>-th
+     * one referring to the <code>k</code>-th binding
+     * @throws IllegalArgumentException if there are too many bindings
+     */
+    public IntMultiset[] evaluateAll() {
+        final long n = bindings();
+        if (n > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("too many bindings: "+n);
+
+        final IntMultiset[] res = new IntMultiset[(int) n];
+        final int[] b = new int[this.radix.length];
+        for (int k = 0; k < n; k++) {
+            evaluate(b, res[k] = new IntMultiset());
+            for (int pos = b.length - 1; pos >= 0 && ++b[pos] == this.radix[pos]; pos--) // next binding
+                b[pos] = 0;
+        }
+
+        return res;
+    }
+
+    /**
+     * evaluates the compiled term on all the bindings of the domain, summing up the results
+     * @return the multiset of (encoded) codomain tuples resulting from all the bindings
+     * @throws IllegalArgumentException if there are too many bindings
+     */
+    public IntMultiset evaluateSum() {
+        final long n = bindings();
+        if (n > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("too many bindings: "+n);
+
+        final IntMultiset res = new IntMultiset();
+        final int[] b = new int[this.radix.length];
+        for (int k = 0; k < n; k++) {
+            evaluate(b, res);
+            for (int pos = b.length - 1; pos >= 0 && ++b[pos] == this.radix[pos]; pos--)
+                b[pos] = 0;
+        }
+
+        return res;
+    }
+}
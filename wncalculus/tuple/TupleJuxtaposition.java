@@ -92,7 +92,7 @@ public final class TupleJuxtaposition  implements FunctionTuple, N_aryOp<Functio
                  throw new IllegalDomain(tuples+": non mono-coloured tuples are present!");
         });
         
-        return new Domain(d);
+        return Domain.factory(d);
     }
 
     @Override
@@ -125,7 +125,7 @@ public final class TupleJuxtaposition  implements FunctionTuple, N_aryOp<Functio
             Domain old_cd = tuple.getCodomain();
             Map.Entry<? extends Sort, Integer> e = old_cd.asMap().entrySet().iterator().next();
             var cc = e.getKey(); //the sub-tuple is mono-coloured
-            cloned_tuples.add((FunctionTuple)tuple.clone(newdom, newcd.mult(cc) != 0 ? old_cd : new Domain(newcd.getSort(cc.name()), e.getValue()) ));
+            cloned_tuples.add((FunctionTuple)tuple.clone(newdom, newcd.mult(cc) != 0 ? old_cd : Domain.factory(newcd.getSort(cc.name()), e.getValue()) ));
         });
         
         return new TupleJuxtaposition(cloned_tuples, true);
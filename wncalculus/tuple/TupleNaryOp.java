@@ -24,7 +24,7 @@ public abstract class TupleNaryOp  implements FunctionTuple , N_aryOp<FunctionTu
          if (check)
             Expressions.checkArity(tuples);
         
-        this.args = Collections.unmodifiableSet(tuples);
+        this.args = Expressions.canonicalSet(tuples);
     }
     
     @Override
@@ -70,5 +70,14 @@ public abstract class TupleNaryOp  implements FunctionTuple , N_aryOp<FunctionTu
     public final Class<? extends FunctionTuple> type() {
         return FunctionTuple.class;
     }
+    
+    /**
+     * sums/intersections resulting from expansions may have many independent
+     * operands, that are normalized in parallel if enabled (@see ParallelNormalization)
+     */
+    @Override
+    public final boolean normalizeArgs(Collection<FunctionTuple> args) {
+        return ParallelNormalization.normalize(args);
+    }
 
 }
@@ -22,9 +22,9 @@ public final class TupleProjection implements FunctionTuple, UnaryOp<FunctionTup
     private final FunctionTuple ftuple; // the function argument 
     private final Domain codomain;
     private boolean simplified;
+    private Analysis inherited; // the (possibly null) analysis of the projection this one derives from; dropped once analysed
     //cache
-    private Integer mboundoff; // the offset to the get the projection monotonicity bound
-    private InequalityGraph graph;
+    private Analysis analysis; // the analysis of the filter's inequalities of the projected tuple
 
     final static String OPSYMB = "Prj_";//"\u220F_"; 
 
@@ -36,12 +36,92 @@ public final class TupleProjection implements FunctionTuple, UnaryOp<FunctionTup
      * one-sorted
      */
     public TupleProjection(final FunctionTuple f, final int size) {
+        this(f, size, null);
+    }
+
+    /**
+     * builds a projection rewritten from another one, inheriting its analysis
+     * @param f the Projection function-tuple
+     * @param size the Projection's size
+     * @param a the (possibly null) analysis of the original projection
+     */
+    private TupleProjection(final FunctionTuple f, final int size, final Analysis a) {
         if ((this.cc = (ColorClass) f.oneSorted()) == null) {
             throw new IllegalArgumentException("Many-sorted funtion-tuple to project!");
         }
         this.k = checkSize(size, f.size());
         this.ftuple = f;
-        this.codomain = new Domain(this.cc, this.k);
+        this.codomain = Domain.factory(this.cc, this.k);
+        this.inherited = a;
+    }
+
+    /**
+     * the analysis of the inequalities of a projection's filter: the inequality graph
+     * and the projection monotonicity bound; it is passed along the chain of projections
+     * rewritten from one another (restricted filters, case splits), so that the graph
+     * is rebuilt only when the inequalities change, and just extended when they are
+     * added to (unordered classes); it is immutable, thus it may be shared; it only
+     * refers to the inequalities and components of the projected tuple, so it doesn't
+     * outlive (the session of) the projection
+     */
+    private static final class Analysis {
+
+        final int k;
+        final Set<Equality> inequalities;
+        final List<? extends SetFunction> components;
+        final InequalityGraph graph;
+        final int bound; // the offset to the get the projection monotonicity bound
+        private Boolean clique; // racy single-check
+
+        private Analysis(final int k, final Set<Equality> inequalities, final List<? extends SetFunction> components, final InequalityGraph graph) {
+            this.k = k;
+            this.inequalities = inequalities;
+            this.components = components;
+            this.graph = graph;
+            this.bound = graph.monoBound(k, components);
+        }
+
+        /**
+         * @param prev the analysis of a previous projection in the chain (possibly <code>null</code>)
+         * @param k the projection's size
+         * @param inequalities the inequalities of the filter
+         * @param components the components of the tuple to project
+         * @return the analysis of the projection, possibly reusing <code>prev</code>
+         */
+        static Analysis of(final Analysis prev, final int k, final Set<Equality> inequalities, final List<? extends SetFunction> components) {
+            if (prev == null) {
+                return new Analysis(k, inequalities, components, new InequalityGraph(inequalities));
+            }
+            if (prev.inequalities.equals(inequalities)) {
+                return prev.k == k && prev.components.equals(components) ? prev : new Analysis(k, inequalities, components, prev.graph);
+            }
+            if (!prev.graph.getColorClass().isOrdered() && inequalities.containsAll(prev.inequalities)) {
+                final Set<Equality> added = new HashSet<>(inequalities);
+                added.removeAll(prev.inequalities);
+                return new Analysis(k, inequalities, components, prev.graph.extend(added));
+            }
+            return new Analysis(k, inequalities, components, new InequalityGraph(inequalities));
+        }
+
+        /**
+         * @return <code>true</code> if and only if the sub-graph of vertices with index
+         * &le; k is a clique
+         */
+        boolean isClique() {
+            Boolean c = this.clique;
+            if (c == null) {
+                this.clique = c = this.graph.isClique(this.k);
+            }
+            return c;
+        }
+    }
+
+    /**
+     * @param f a function-tuple rewritten from the projected one
+     * @return the projection of <code>f</code>, inheriting the analysis of <code>this</code>
+     */
+    private TupleProjection derive(final FunctionTuple f) {
+        return new TupleProjection(f, this.k, this.analysis != null ? this.analysis : this.inherited);
     }
 
     private static int checkSize(final int k, final int arity) {
@@ -64,25 +144,24 @@ public final class TupleProjection implements FunctionTuple, UnaryOp<FunctionTup
         return this.codomain;
     }
 
-    private InequalityGraph getGraph(final Set<Equality> inequalities) {
-        if (this.graph == null) {
-            this.graph = new InequalityGraph(inequalities);
-        }
-        return this.graph;
-    }
-
-    private int getBound(final Set<Equality> inequalities) {
-        if (this.mboundoff == null) {
-            this.mboundoff = getGraph(inequalities).monoBound(this.k, ((Tuple) this.ftuple).getHomSubTuple(this.cc));
-        }
-        return this.mboundoff;
+    /**
+     * @param inequalities the inequalities of the projected tuple's filter
+     * @param components the components of the projected tuple
+     * @return the analysis of <code>this</code> projection (reusing the inherited one, if possible)
+     */
+    private Analysis analyse(final Set<Equality> inequalities, final List<? extends SetFunction> components) {
+        final Analysis a = Analysis.of(this.analysis != null ? this.analysis : this.inherited, this.k, inequalities, components);
+        this.analysis = a;
+        this.inherited = null; // no longer needed: it would pin the analyses of the whole chain
+        return a;
     }
 
     @Override
     public Map<Sort, Integer> splitDelimiters() {
         final Map<Sort, Integer> delimiters = this.ftuple.splitDelimiters();
-        if (this.mboundoff != null && this.mboundoff > 0) {
-            ColorClass.setDelim(delimiters, this.cc, this.cc.setDelim(this.mboundoff));
+        final Analysis a = this.analysis;
+        if (a != null && a.bound > 0) {
+            ColorClass.setDelim(delimiters, this.cc, this.cc.setDelim(a.bound));
         }
         return delimiters;
     }
@@ -101,7 +180,7 @@ public final class TupleProjection implements FunctionTuple, UnaryOp<FunctionTup
             return getFalse();
         }
         if (this.ftuple instanceof TupleProjection tupleProjection) {
-            return new TupleProjection(tupleProjection.ftuple, this.k);
+            return new TupleProjection(tupleProjection.ftuple, this.k, tupleProjection.analysis);
         }
         // main case
         if (this.ftuple instanceof Tuple tuple) {
@@ -123,7 +202,7 @@ public final class TupleProjection implements FunctionTuple, UnaryOp<FunctionTup
                             final Set<Guard> eq_restr = Guard.restriction(equalities, this.k), ieq_restr;
                             if (eq_restr.size() != equalities.size()) { // Lemma 11: some equalities refer to the tuple's extended part ...
                                 eq_restr.addAll(inequalities); // inequalities are added
-                                return new TupleProjection(new Tuple(filter.andFactory(eq_restr), tuple.getHomSubTuples(), guard), this.k);
+                                return derive(new Tuple(filter.andFactory(eq_restr), tuple, guard));
                             }
                             // equalities (if any) refer to the original part of the tuple
                             ieq_restr = Guard.restriction(inequalities, this.k);
@@ -131,27 +210,26 @@ public final class TupleProjection implements FunctionTuple, UnaryOp<FunctionTup
                                 return new Tuple(filter.clone(codom), projected, guard); // rule 3
                             }
                             // some inequality refers to the extended part of the tuple
-                            getBound(inequalities); // we use the cache
-                            System.out.println("mon_bound: " + this.mboundoff); //debug
-                            if (this.mboundoff == 0) { // corollary 14: the tuple's cardinality lower bounds satisfy the projection mon. bound
+                            final Analysis a = analyse(inequalities, components); // possibly reused along the rewrite chain
+                            if (a.bound == 0) { // corollary 14: the tuple's cardinality lower bounds satisfy the projection mon. bound
                                 eq_restr.addAll(ieq_restr); // the k-restriction of the filter
                                 return new Tuple(And.buildAndFormWithD(eq_restr, codom), projected, guard); // k-restr of the whole tuple
                             }
                             // the tuple's lower bounds do not satisfy the projection mon. bound
-                            if (this.graph.isSimpleForm()) {
-                                final boolean clique_k = this.graph.isClique(this.k);
-                                if (clique_k && minLb(inequalities, components, this.k) >= this.graph.chromaticNumber()) { //Lemmaa 10: g[T] is simple, the inequalities restriction is a clique, and the lower bounds are at least as the chromatic numb.
+                            if (a.graph.isSimpleForm()) {
+                                final boolean clique_k = a.isClique();
+                                if (clique_k && minLb(inequalities, components, this.k) >= a.graph.chromaticNumber()) { //Lemmaa 10: g[T] is simple, the inequalities restriction is a clique, and the lower bounds are at least as the chromatic numb.
                                     eq_restr.addAll(ieq_restr);
                                     return new Tuple(And.buildAndFormWithD(eq_restr, codom), projected, guard); // k-restr of the tuple
                                 } else { // either the inequalities restriction is not a clique or some extended component (that ..) has card. lb  < X
                                     FunctionTuple ft = tuple.reduceFilterClassIneqs(inequalities, this.cc);
                                     if (ft != tuple) {  // [g]T is not a fixed-point (we may drop this condition)
-                                        return new TupleProjection(ft, this.k);
+                                        return derive(ft);
                                     }
                                     if (!clique_k) { // the cardinalities u.b. <= mon_bound (otherwise a split would be needed)     
                                         codom = tuple.getCodomain();
                                         // [g]T is a f.p.: there should be (assumption) a pair of independent nodes X_i, X_j, i <=k , j <= k - DOES THE CHECK MAY BE REMOVED?
-                                        final Projection[] i_nodes = this.graph.getIndependentNodesLe(this.k);
+                                        final Projection[] i_nodes = a.graph.getIndependentNodesLe(this.k);
                                         //System.out.println(toStringDetailed()+": added constraint: "+i_nodes[0]+","+i_nodes[1]); //debug
                                         final Set<Equality> f_args = new HashSet<>(inequalities); // a copy of the filter 
                                         f_args.addAll(equalities);
@@ -159,8 +237,8 @@ public final class TupleProjection implements FunctionTuple, UnaryOp<FunctionTup
                                         final var args_2 = new HashSet<Guard>(f_args);
                                         args_1.add(Equality.builder(i_nodes[0], i_nodes[1], true, codom));
                                         args_2.add(Equality.builder(i_nodes[0], i_nodes[1], false, codom));
-                                        TupleProjection tp_1 = new TupleProjection(new Tuple(And.factory(args_1), tuple.getHomSubTuples(), guard), this.k),
-                                                tp_2 = new TupleProjection(new Tuple(And.factory(args_2), tuple.getHomSubTuples(), guard), this.k);
+                                        TupleProjection tp_1 = derive(new Tuple(And.factory(args_1), tuple, guard)),
+                                                tp_2 = derive(new Tuple(And.factory(args_2), tuple, guard));
                                         return TupleSum.factory(true, tp_1, tp_2);
                                     }
                                 }
@@ -179,7 +257,7 @@ public final class TupleProjection implements FunctionTuple, UnaryOp<FunctionTup
                                     args.removeAll(maxsim);
                                     args.addAll(equalities);
                                     final Or nested = (Or) Or.factory(Equality.missingOppEqs(maxsim, ccard), true);
-                                    return new TupleProjection(new Tuple(((And) And.factory(args)).distribute(nested), tuple.getHomSubTuples(), guard), this.k);
+                                    return derive(new Tuple(((And) And.factory(args)).distribute(nested), tuple, guard));
                                 }
                             }
                         }
@@ -247,7 +325,7 @@ public final class TupleProjection implements FunctionTuple, UnaryOp<FunctionTup
 
     @Override
     public TupleProjection buildOp(final FunctionTuple arg) {
-        return new TupleProjection(arg, this.k);
+        return new TupleProjection(arg, this.k, this.analysis != null ? this.analysis : this.inherited);
     }
 
     @Override
@@ -2,6 +2,7 @@ package tuple;
 
 import java.util.*;
 import expr.IllegalDomain;
+import logexpr.LogicalExpr;
 import logexpr.OrOp;
 import util.Util;
 
@@ -133,6 +134,26 @@ public final class TupleSum extends TupleNaryOp implements OrOp<FunctionTuple> {
     public void setDisjoint() {
         this.disjoined = true;
     }
+
+    /**
+     * disjoins <code>this</code> sum incrementally (@see DisjointSumBuilder), so that
+     * only the operands which may overlap are intersected
+     * @return either an equivalent disjoint sum, or <code>this</code> if the sum is
+     * marked as, or comes to be, already disjoint (in the latter case it is marked as disjoint)
+     */
+    @Override
+    public LogicalExpr disjoin() {
+        if (!this.disjoined) {
+            final DisjointSumBuilder b = new DisjointSumBuilder();
+            getArgs().forEach(b::add);
+            if (b.rewritten()) {
+                return b.size() == 0 ? getFalse() : b.build();
+            }
+            setDisjoint();
+        }
+
+        return this;
+    }
     
      @Override
     public void printCard() {
@@ -0,0 +1,256 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * this class implements multisets of (non-negative) <code>int</code> keys, e.g.,
+ * the encodings of color tuples, with (possibly negative) <code>int</code> multiplicities;
+ * it is an open-addressing (linear probing) table of primitive keys and counts,
+ * so that adding an element doesn't allocate (but when the table grows);
+ * elements whose multiplicity becomes zero are removed
+ * @author Lorenzo Capra
+ */
+public final class IntMultiset {
+
+    private static final int FREE = -1; // the marker of free slots
+
+    private int[] keys, counts;
+    private int size; // the number of distinct elements
+
+    /**
+     * the consumer of the elements of a multiset
+     */
+    @FunctionalInterface
+    public interface ElementConsumer {
+        /**
+         * @param key an element
+         * @param count its multiplicity
+         */
+        void accept(int key, int count);
+    }
+
+    /**
+     * creates an empty multiset
+     */
+    public IntMultiset() {
+        this(16);
+    }
+
+    /**
+     * creates an empty multiset
+     * @param expected the expected number of distinct elements
+     */
+    public IntMultiset(int expected) {
+        final int n = Integer.highestOneBit(Math.max(8, expected) * 2 - 1) * 2; // a power of two, at least twice the expected size
+        this.keys = new int[n];
+        Arrays.fill(this.keys, FREE);
+        this.counts = new int[n];
+    }
+
+    private static int slot(int key, int mask) {
+        final int h = key * 0x9E3779B9;
+        return (h ^ h >>> 16) & mask;
+    }
+
+    /**
+     * adds some occurrences of an element
+     * @param key an element
+     * @param k the number of occurrences (possibly negative)
+     * @throws IllegalArgumentException if the element is negative
+     * @throws ArithmeticException if the multiplicity overflows
+     */
+    public void add(int key, int k) {
+        if (key < 0)
+            throw new IllegalArgumentException("negative element: "+key);
+
+        if (k == 0)
+            return;
+
+        final int mask = this.keys.length - 1;
+        int i = slot(key, mask);
+        for (int x; (x = this.keys[i]) != FREE; i = i + 1 & mask)
+            if (x == key) {
+                if ((this.counts[i] = Math.addExact(this.counts[i], k)) == 0)
+                    remove(i);
+                return;
+            }
+        this.keys[i] = key;
+        this.counts[i] = k;
+        if (2 * ++this.size > this.keys.length)
+            rehash(this.keys.length * 2);
+    }
+
+    /**
+     * adds one occurrence of an element
+     * @param key an element
+     */
+    public void add(int key) {
+        add(key, 1);
+    }
+
+    /**
+     * adds (the occurrences of) the elements of a multiset
+     * @param m a multiset
+     * @param k a factor the multiplicities of <code>m</code> are multiplied by
+     */
+    public void addAll(IntMultiset m, int k) {
+        m.forEach((key, c) -> { add(key, Math.multiplyExact(c, k)); });
+    }
+
+    /*
+    backward-shift deletion: the entries following the freed slot in the probe
+    chain are moved, so that no tombstone is needed
+    */
+    private void remove(int i) {
+        final int mask = this.keys.length - 1;
+        int j = i;
+        while (true) {
+            j = j + 1 & mask;
+            final int x = this.keys[j];
+            if (x == FREE)
+                break;
+
+            final int home = slot(x, mask);
+            if (i <= j ? i < home && home <= j : i < home || home <= j) // x's home is cyclically in (i, j]: x stays
+                continue;
+
+            this.keys[i] = x;
+            this.counts[i] = this.counts[j];
+            i = j;
+        }
+        this.keys[i] = FREE;
+        this.counts[i] = 0;
+        this.size--;
+    }
+
+    private void rehash(int n) {
+        final int[] oldkeys = this.keys, oldcounts = this.counts;
+        this.keys = new int[n];
+        Arrays.fill(this.keys, FREE);
+        this.counts = new int[n];
+        final int mask = n - 1;
+        for (int j = 0; j < oldkeys.length; j++)
+            if (oldkeys[j] != FREE) {
+                int i = slot(oldkeys[j], mask);
+                while (this.keys[i] != FREE)
+                    i = i + 1 & mask;
+                this.keys[i] = oldkeys[j];
+                this.counts[i] = oldcounts[j];
+            }
+    }
+
+    /**
+     * @param key an element
+     * @return the multiplicity of the element (0 if it is not present)
+     */
+    public int count(int key) {
+        final int mask = this.keys.length - 1;
+        for (int i = slot(key, mask), x; (x = this.keys[i]) != FREE; i = i + 1 & mask)
+            if (x == key)
+                return this.counts[i];
+
+        return 0;
+    }
+
+    /**
+     * @return the number of distinct elements
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return <code>true</code> if and only if the multiset is empty
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * @return the sum of multiplicities
+     */
+    public long cardinality() {
+        long c = 0;
+        for (int i = 0; i < this.keys.length; i++)
+            if (this.keys[i] != FREE)
+                c += this.counts[i];
+
+        return c;
+    }
+
+    /**
+     * removes all the elements
+     */
+    public void clear() {
+        Arrays.fill(this.keys, FREE);
+        Arrays.fill(this.counts, 0);
+        this.size = 0;
+    }
+
+    /**
+     * @return the (distinct) elements, in increasing order
+     */
+    public int[] elements() {
+        final int[] res = new int[this.size];
+        int k = 0;
+        for (int x : this.keys)
+            if (x != FREE)
+                res[k++] = x;
+        Arrays.sort(res);
+
+        return res;
+    }
+
+    /**
+     * performs an action for each (distinct) element, in no particular order
+     * @param action an action
+     */
+    public void forEach(ElementConsumer action) {
+        for (int i = 0; i < this.keys.length; i++)
+            if (this.keys[i] != FREE)
+                action.accept(this.keys[i], this.counts[i]);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+
+        if (!(o instanceof IntMultiset) || ((IntMultiset) o).size != this.size)
+            return false;
+
+        final IntMultiset m = (IntMultiset) o;
+        for (int i = 0; i < this.keys.length; i++)
+            if (this.keys[i] != FREE && m.count(this.keys[i]) != this.counts[i])
+                return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 0;
+        for (int i = 0; i < this.keys.length; i++)
+            if (this.keys[i] != FREE)
+                h += this.keys[i] ^ this.counts[i];
+
+        return h;
+    }
+
+    /**
+     * @return the elements (in increasing order) with their multiplicities, e.g., "2*5 + 7"
+     */
+    @Override
+    public String toString() {
+        if (this.size == 0)
+            return "0";
+
+        final StringBuilder sb = new StringBuilder();
+        for (int x : elements()) {
+            final int c = count(x);
+            sb.append(sb.length() == 0 ? "" : " + ").append(c != 1 ? c + "*" : "").append(x);
+        }
+
+        return sb.toString();
+    }
+}
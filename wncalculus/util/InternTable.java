@@ -0,0 +1,233 @@
+package util;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * this class implements a thread-safe interning table, used by the builder methods
+ * of classes whose instances are unique (so that they can be compared by identity);
+ * the table's storage is owned by the current analysis session (@see Session),
+ * instances interned in the enclosing sessions are inherited;
+ * lookups are lock-free, concurrent insertions of the same key are resolved
+ * in favour of the first one, so that the identity semantics is preserved
+ * (the builder may be called more than once, but only one instance is ever returned);
+ * values are weakly referenced: an instance no longer reachable from outside
+ * can be garbage-collected, the corresponding entry is expunged by the
+ * next operation on the table (as long as an instance is reachable, it stays unique)
+ * @author Lorenzo Capra
+ * @param <K> the type of keys
+ * @param <V> the type of (interned) values
+ */
+public final class InternTable<K, V> implements Interning {
+
+    /** a rough estimate of the memory retained by an entry (map node, reference, key), in bytes */
+    public static final int ENTRY_BYTES = 128;
+
+    private static final List<Interning> TABLES = new CopyOnWriteArrayList<>();
+    private static final Function<Object, Store<?, ?>> STORE = t -> new Store<>();
+
+    private final String name;
+
+    /*
+    a weak reference to an interned instance, remembering its key
+    */
+    private static final class Entry<K, V> extends WeakReference<V> {
+
+        private final K key;
+
+        Entry(K key, V value, ReferenceQueue<? super V> q) {
+            super(value, q);
+            this.key = key;
+        }
+    }
+
+    /*
+    the storage of a table, owned by a session
+    */
+    static final class Store<K, V> {
+
+        private final ConcurrentHashMap<K, Entry<K, V>> map = new ConcurrentHashMap<>();
+        private final ReferenceQueue<V> queue = new ReferenceQueue<>();
+
+        V intern(K key, Supplier<? extends V> builder) {
+            expunge();
+            Entry<K, V> e = this.map.get(key);
+            V v;
+            if (e != null && (v = e.get()) != null)
+                return v;
+
+            final V nv = builder.get(); // outside of any lock: builders may be re-entrant
+            final Entry<K, V> ne = new Entry<>(key, nv, this.queue);
+            while ((e = this.map.putIfAbsent(key, ne)) != null) {
+                if ((v = e.get()) != null)
+                    return v;
+
+                if (this.map.replace(key, e, ne)) // a stale entry
+                    break;
+            }
+
+            return nv;
+        }
+
+        V get(K key) {
+            final Entry<K, V> e = this.map.get(key);
+
+            return e == null ? null : e.get();
+        }
+
+        @SuppressWarnings("unchecked")
+        void expunge() {
+            Entry<K, V> e;
+            while ((e = (Entry<K, V>) this.queue.poll()) != null)
+                this.map.remove(e.key, e);
+        }
+
+        int size() {
+            expunge();
+
+            return this.map.size();
+        }
+    }
+
+    /**
+     * creates a (registered) interning table
+     * @param name the table's name, used in reports
+     */
+    public InternTable(String name) {
+        this.name = name;
+        register(this);
+    }
+
+    /**
+     * registers an interning table for reporting
+     * @param t a table
+     */
+    static void register(Interning t) {
+        TABLES.add(t);
+    }
+
+    /*
+    the storage of the table owned by the current session
+    */
+    private Store<K, V> store() {
+        return Session.current().store(this, STORE);
+    }
+
+    /**
+     * @param key a key
+     * @param builder the supplier of a new instance, called if the key is not mapped
+     * (in the current session, nor in an enclosing one); it must not have side effects on other tables,
+     * as its result might be discarded
+     * @return the (unique) instance mapped to the key
+     */
+    public V intern(K key, Supplier<? extends V> builder) {
+        final Session s = Session.current();
+        final Store<K, V> st = s.store(this, STORE);
+        final V v = st.get(key);
+        if (v != null)
+            return v;
+
+        final V inh = inherited(s, key);
+        return inh != null ? inh : st.intern(key, builder);
+    }
+
+    /*
+    the instance mapped to the key in the sessions enclosing a given one, if any
+    */
+    private V inherited(Session s, K key) {
+        V v;
+        Store<K, V> st;
+        for (Session p = s.parent(); p != null; p = p.parent())
+            if ((st = p.storeIfAny(this)) != null && (v = st.get(key)) != null)
+                return v;
+
+        return null;
+    }
+
+    /**
+     * @param key a key
+     * @return the instance mapped to the key (in the current session, or in an enclosing one);
+     * <code>null</code> if there is no one
+     */
+    public V get(K key) {
+        final Session s = Session.current();
+        final Store<K, V> st = s.store(this, STORE);
+        final V v = st.get(key);
+
+        return v != null ? v : inherited(s, key);
+    }
+
+    /**
+     * removes the entries (of the current session) whose instances have been garbage-collected
+     */
+    @Override
+    public void expunge() {
+        store().expunge();
+    }
+
+    /**
+     * @return the number of instances interned in the current session (after expunging stale entries)
+     */
+    @Override
+    public int size() {
+        return store().size();
+    }
+
+    /**
+     * @return the table's name
+     */
+    @Override
+    public String name() {
+        return this.name;
+    }
+
+    /**
+     * @return the (rough) estimate of the memory retained by the table in the current session,
+     * in bytes (the interned instances are not taken into account)
+     */
+    public long retainedBytes() {
+        return (long) size() * ENTRY_BYTES;
+    }
+
+    /**
+     * expunges the stale entries of all the interning tables (of the current session)
+     */
+    public static void expungeAll() {
+        TABLES.forEach(Interning::expunge);
+    }
+
+    /**
+     * @return the map between the names of interning tables and their sizes (in the current session)
+     */
+    public static Map<String, Integer> sizes() {
+        final Map<String, Integer> res = new TreeMap<>();
+        TABLES.forEach(t -> { res.merge(t.name(), t.size(), Integer::sum); });
+
+        return res;
+    }
+
+    /**
+     * @return a report of the sizes of interning tables and the estimated retained memory
+     * (in the current session)
+     */
+    public static String report() {
+        final StringBuilder sb = new StringBuilder(Session.current().toString()).append('\n');
+        long bytes = 0;
+        for (Map.Entry<String, Integer> e : sizes().entrySet()) {
+            sb.append(e.getKey()).append(": ").append(e.getValue()).append('\n');
+            bytes += (long) e.getValue() * ENTRY_BYTES;
+        }
+
+        return sb.append("estimated retained memory: ").append(bytes / 1024).append(" KB").toString();
+    }
+
+    @Override
+    public String toString() {
+        return this.name + ": " + size() + " entries";
+    }
+}
@@ -0,0 +1,23 @@
+package util;
+
+/**
+ * the common view of interning tables, used for reporting
+ * @author Lorenzo Capra
+ */
+interface Interning {
+
+    /**
+     * @return the table's name
+     */
+    String name();
+
+    /**
+     * @return the number of instances interned in the current session
+     */
+    int size();
+
+    /**
+     * removes the stale entries of the current session
+     */
+    void expunge();
+}
@@ -0,0 +1,103 @@
+package util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * this class implements a thread-safe memoization table, whose storage is owned
+ * by the current analysis session (@see Session), results memoized in the enclosing
+ * sessions are inherited: unlike an interning table
+ * (@see InternTable) results are strongly referenced, so they last as long
+ * as the session; a <code>null</code> result (e.g., a computation that fails)
+ * is memoized too; lookups are lock-free, concurrent computations of the same key
+ * are resolved in favour of the first one
+ * @author Lorenzo Capra
+ * @param <K> the type of keys
+ * @param <V> the type of results
+ */
+public final class MemoTable<K, V> implements Interning {
+
+    private static final Object NONE = new Object(); // the null result
+    private static final Function<Object, ConcurrentHashMap<?, ?>> STORE = t -> new ConcurrentHashMap<>();
+
+    private final String name;
+
+    /**
+     * creates a (registered) memoization table
+     * @param name the table's name, used in reports
+     */
+    public MemoTable(String name) {
+        this.name = name;
+        InternTable.register(this);
+    }
+
+    /*
+    the storage of the table owned by the current session
+    */
+    private ConcurrentHashMap<K, Object> store() {
+        return Session.current().store(this, STORE);
+    }
+
+    /**
+     * @param key a key
+     * @param computation the computation of the result, called if the key is not mapped
+     * (in the current session, nor in an enclosing one); it may be re-entrant
+     * @return the (possibly <code>null</code>) result mapped to the key
+     */
+    @SuppressWarnings("unchecked")
+    public V get(K key, Supplier<? extends V> computation) {
+        final Session s = Session.current();
+        final ConcurrentHashMap<K, Object> map = s.store(this, STORE);
+        Object v = map.get(key);
+        if (v == null && (v = inherited(s, key)) == null) {
+            final V nv = computation.get(); // outside of any lock
+            v = map.putIfAbsent(key, nv == null ? NONE : nv);
+            if (v == null)
+                return nv;
+        }
+
+        return v == NONE ? null : (V) v; // safe: only results of type V (or NONE) are stored
+    }
+
+    /*
+    the result mapped to the key in the sessions enclosing a given one, if any
+    */
+    private Object inherited(Session s, K key) {
+        Object v;
+        ConcurrentHashMap<K, Object> map;
+        for (Session p = s.parent(); p != null; p = p.parent())
+            if ((map = p.storeIfAny(this)) != null && (v = map.get(key)) != null)
+                return v;
+
+        return null;
+    }
+
+    /**
+     * does nothing, as results are strongly referenced
+     */
+    @Override
+    public void expunge() {
+    }
+
+    /**
+     * @return the number of results memoized in the current session
+     */
+    @Override
+    public int size() {
+        return store().size();
+    }
+
+    /**
+     * @return the table's name
+     */
+    @Override
+    public String name() {
+        return this.name;
+    }
+
+    @Override
+    public String toString() {
+        return this.name + ": " + size() + " results";
+    }
+}
@@ -0,0 +1,255 @@
+package util;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * this class implements an interning table whose keys are made of (up to) three
+ * objects and a primitive <code>long</code>, stored unboxed into the table's entries:
+ * unlike with <code>InternTable</code>, a lookup doesn't need any key object, so that
+ * a hit doesn't allocate; it is meant for the (hot) builders of elementary terms,
+ * whose keys are (color, index, successor) or (operand, operand, domain, sign);
+ * the table is open-addressed (linear probing); lookups are lock-free, insertions are
+ * serialized (on the session's storage) and don't ever remove entries from probe
+ * chains, so that a concurrent lookup may at most miss a just inserted entry
+ * (then the caller falls back to <code>intern</code>, which re-checks under lock);
+ * as with <code>InternTable</code>, values are weakly referenced and the storage is
+ * owned by the current analysis session (@see Session), instances interned in the
+ * enclosing sessions are inherited
+ * the intended use is
+ * <pre>
+ *   V v = T.get(a, b, c, k);
+ *   return v != null ? v : T.intern(a, b, c, k, () -&gt; new V(...));
+ * </pre>
+ * so that the (capturing) builder is only created on a miss
+ * @author Lorenzo Capra
+ * @param <V> the type of (interned) values
+ */
+public final class PackedInternTable<V> implements Interning {
+
+    private static final int INIT_SIZE = 64; // a power of two
+    private static final Function<Object, Store<?>> STORE = t -> new Store<>();
+
+    private final String name;
+
+    /*
+    a weak reference to an interned instance, holding the unpacked key
+    */
+    private static final class Entry<V> extends WeakReference<V> {
+
+        private final Object a, b, c;
+        private final long k;
+        private final int hash;
+
+        Entry(Object a, Object b, Object c, long k, int hash, V value, ReferenceQueue<? super V> q) {
+            super(value, q);
+            this.a = a;
+            this.b = b;
+            this.c = c;
+            this.k = k;
+            this.hash = hash;
+        }
+
+        boolean matches(Object a, Object b, Object c, long k, int hash) {
+            return this.hash == hash && this.k == k && eq(this.a, a) && eq(this.b, b) && eq(this.c, c);
+        }
+
+        private static boolean eq(Object x, Object y) {
+            return x == y || x != null && x.equals(y);
+        }
+    }
+
+    /*
+    the storage of a table, owned by a session
+    */
+    static final class Store<V> {
+
+        private volatile Entry<V>[] table = newTable(INIT_SIZE);
+        private int used;  // the non-null slots (guarded by this)
+        private int stale; // the slots referring to garbage-collected instances (guarded by this)
+        private final ReferenceQueue<V> queue = new ReferenceQueue<>();
+
+        @SuppressWarnings("unchecked")
+        private static <V> Entry<V>[] newTable(int n) {
+            return (Entry<V>[]) new Entry<?>[n];
+        }
+
+        V get(Object a, Object b, Object c, long k, int h) {
+            final Entry<V>[] t = this.table;
+            final int mask = t.length - 1;
+            Entry<V> e;
+            V v;
+            for (int i = h & mask; (e = t[i]) != null; i = i + 1 & mask)
+                if (e.matches(a, b, c, k, h) && (v = e.get()) != null)
+                    return v;
+
+            return null;
+        }
+
+        synchronized V put(Object a, Object b, Object c, long k, int h, V v) {
+            expunge();
+            Entry<V>[] t = this.table;
+            int mask = t.length - 1, free = -1, i;
+            Entry<V> e;
+            for (i = h & mask; (e = t[i]) != null; i = i + 1 & mask) {
+                final V old = e.get();
+                if (old == null) {
+                    if (free < 0)
+                        free = i;
+                }
+                else if (e.matches(a, b, c, k, h))
+                    return old;
+            }
+            final Entry<V> ne = new Entry<>(a, b, c, k, h, v, this.queue);
+            if (free >= 0) { // reuses a stale slot, the probe chains are preserved
+                t[free] = ne;
+                this.stale = Math.max(0, this.stale - 1);
+            }
+            else {
+                t[i] = ne;
+                if (2 * ++this.used > t.length)
+                    rebuild();
+            }
+
+            return v;
+        }
+
+        /*
+        the live entries are copied into a new table, then the table is published;
+        the new table is sized on the live entries, counted in a first pass
+        (instances are never resurrected, so the second pass finds at most as many),
+        so that it is always less than half full
+        */
+        private void rebuild() {
+            int live = 0;
+            for (Entry<V> e : this.table)
+                if (e != null && e.get() != null)
+                    live++;
+            final int n = Math.max(INIT_SIZE, Integer.highestOneBit(Math.max(1, live)) * 4);
+            final Entry<V>[] t = newTable(n);
+            final int mask = n - 1;
+            live = 0;
+            for (Entry<V> e : this.table)
+                if (e != null && e.get() != null) {
+                    int i = e.hash & mask;
+                    while (t[i] != null)
+                        i = i + 1 & mask;
+                    t[i] = e;
+                    live++;
+                }
+            this.used  = live;
+            this.stale = 0;
+            this.table = t;
+        }
+
+        synchronized void expunge() {
+            while (this.queue.poll() != null)
+                this.stale++; // an estimate (possibly in excess): it is only used as a trigger
+            if (4 * this.stale > this.used) // many stale slots lengthen probe chains
+                rebuild();
+        }
+
+        synchronized int size() {
+            expunge();
+            int n = 0;
+            for (Entry<V> e : this.table)
+                if (e != null && e.get() != null)
+                    n++;
+
+            return n;
+        }
+    }
+
+    /**
+     * creates a (registered) interning table
+     * @param name the table's name, used in reports
+     */
+    public PackedInternTable(String name) {
+        this.name = name;
+        InternTable.register(this);
+    }
+
+    /*
+    the storage of the table owned by the current session
+    */
+    private Store<V> store() {
+        return Session.current().store(this, STORE);
+    }
+
+    private static int hash(Object a, Object b, Object c, long k) {
+        int h = ((a.hashCode() * 31 + (b == null ? 0 : b.hashCode())) * 31 + (c == null ? 0 : c.hashCode())) * 31 + Long.hashCode(k);
+        return h ^ h >>> 16;
+    }
+
+    /**
+     * @param a the first component of the key (not <code>null</code>)
+     * @param b the second component of the key (possibly <code>null</code>)
+     * @param c the third component of the key (possibly <code>null</code>)
+     * @param k the primitive component of the key
+     * @return the instance mapped to the key (in the current session, or in an enclosing one);
+     * <code>null</code> if there is no one
+     */
+    public V get(Object a, Object b, Object c, long k) {
+        final Session s = Session.current();
+        final int h = hash(a, b, c, k);
+        final V v = s.<Store<V>>store(this, STORE).get(a, b, c, k, h);
+
+        return v != null ? v : inherited(s, a, b, c, k, h);
+    }
+
+    /*
+    the instance mapped to the key in the sessions enclosing a given one, if any
+    */
+    private V inherited(Session s, Object a, Object b, Object c, long k, int h) {
+        V v;
+        Store<V> st;
+        for (Session p = s.parent(); p != null; p = p.parent())
+            if ((st = p.storeIfAny(this)) != null && (v = st.get(a, b, c, k, h)) != null)
+                return v;
+
+        return null;
+    }
+
+    /**
+     * @param a the first component of the key (not <code>null</code>)
+     * @param b the second component of the key (possibly <code>null</code>)
+     * @param c the third component of the key (possibly <code>null</code>)
+     * @param k the primitive component of the key
+     * @param builder the supplier of a new instance, called (outside of any lock)
+     * if the key is not mapped (in the current session, nor in an enclosing one);
+     * its result might be discarded
+     * @return the (unique) instance mapped to the key
+     */
+    public V intern(Object a, Object b, Object c, long k, Supplier<? extends V> builder) {
+        final Session s = Session.current();
+        final Store<V> st = s.store(this, STORE);
+        final int h = hash(a, b, c, k);
+        V v = st.get(a, b, c, k, h);
+        if (v == null && (v = inherited(s, a, b, c, k, h)) == null)
+            v = st.put(a, b, c, k, h, builder.get());
+
+        return v;
+    }
+
+    @Override
+    public void expunge() {
+        store().expunge();
+    }
+
+    @Override
+    public int size() {
+        return store().size();
+    }
+
+    @Override
+    public String name() {
+        return this.name;
+    }
+
+    @Override
+    public String toString() {
+        return this.name + ": " + size() + " entries";
+    }
+}
@@ -0,0 +1,173 @@
+package util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * this class represents an analysis session, owning the interning tables
+ * (@see InternTable) used while building and normalizing terms: a session is
+ * bound to the thread that opens it, until it is closed; closing a session
+ * releases at once all the instances interned within it, and restores
+ * the previous binding; threads not bound to any session share a global one;
+ * sessions bound to different threads don't contend on tables;
+ * a session inherits the instances of the enclosing ones (i.e., the session bound
+ * to the thread when it has been opened, up to the global one): a lookup that misses
+ * the session's tables falls back to the enclosing sessions' tables, whereas new
+ * instances are always interned in the session itself; so terms built before opening
+ * a session (e.g., a model built on the global session) can be safely used within it
+ * NOTE terms built within a session are unique only within it (and the sessions it
+ * encloses): they must not be mixed with terms of sibling sessions, nor be used
+ * after the session is closed
+ * @author Lorenzo Capra
+ */
+public final class Session implements AutoCloseable {
+
+    private static final Session GLOBAL = new Session("global", null);
+    private static final ThreadLocal<Session> CURRENT = new ThreadLocal<>();
+
+    private final String name;
+    private final Session previous; // the session bound to the thread before this one
+    private final Session parent; // the enclosing session, whose instances are inherited (null for the global one)
+    private final Map<Object, Object> stores = new ConcurrentHashMap<>(); // interning table -> its storage
+    private volatile boolean closed;
+
+    private Session(String name, Session previous) {
+        this.name     = name;
+        this.previous = previous;
+        this.parent   = previous != null ? previous : GLOBAL; // null while building the global session
+    }
+
+    /**
+     * opens a new session and binds it to the current thread
+     * @param name the session's name
+     * @return the new session
+     */
+    public static Session open(String name) {
+        final Session s = new Session(name, CURRENT.get());
+        CURRENT.set(s);
+
+        return s;
+    }
+
+    /**
+     * @return the session bound to the current thread (the global one, if there is no one)
+     */
+    public static Session current() {
+        final Session s = CURRENT.get();
+
+        return s == null ? GLOBAL : s;
+    }
+
+    /**
+     * @return the session shared by threads not bound to any session
+     */
+    public static Session global() {
+        return GLOBAL;
+    }
+
+    /**
+     * runs a task with <code>this</code> session bound to the current thread,
+     * then restores the previous binding; it is used to share a session among
+     * the worker threads of a batch
+     * @param <T> the type of the result
+     * @param task a task
+     * @return the task's result
+     * @throws IllegalStateException if the session has been closed
+     */
+    public <T> T call(Supplier<? extends T> task) {
+        if (this.closed)
+            throw new IllegalStateException("session "+this.name+" is closed");
+
+        final Session prev = CURRENT.get();
+        bind(this);
+        try {
+            return task.get();
+        }
+        finally {
+            bind(prev);
+        }
+    }
+
+    private static void bind(Session s) {
+        if (s == null || s == GLOBAL)
+            CURRENT.remove();
+        else
+            CURRENT.set(s);
+    }
+
+    /**
+     * @param <S> the type of storage
+     * @param t an interning table
+     * @param builder the builder of the table's storage, invoked the first time
+     * the table is used within <code>this</code> session
+     * @return the storage of the table owned by <code>this</code> session
+     * @throws IllegalStateException if the session has been closed
+     */
+    @SuppressWarnings("unchecked")
+    <S> S store(Object t, Function<Object, ?> builder) {
+        if (this.closed)
+            throw new IllegalStateException("session "+this.name+" is closed");
+
+        return (S) this.stores.computeIfAbsent(t, builder);
+    }
+
+    /**
+     * @param <S> the type of storage
+     * @param t an interning table
+     * @return the storage of the table owned by <code>this</code> session, without creating it;
+     * <code>null</code> if the table has never been used within the session, or the session is closed
+     */
+    @SuppressWarnings("unchecked")
+    <S> S storeIfAny(Object t) {
+        return this.closed ? null : (S) this.stores.get(t);
+    }
+
+    /**
+     * @return the enclosing session, whose instances are inherited by <code>this</code> one;
+     * <code>null</code> for the global session
+     */
+    Session parent() {
+        return this.parent;
+    }
+
+    /**
+     * @return the session's name
+     */
+    public String name() {
+        return this.name;
+    }
+
+    /**
+     * @return <code>true</code> if and only if <code>this</code> session has been closed
+     */
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    /**
+     * closes <code>this</code> session, by releasing its tables; if the session is bound
+     * to the current thread, the previous binding is restored
+     * @throws UnsupportedOperationException if <code>this</code> is the global session
+     */
+    @Override
+    public void close() {
+        if (this == GLOBAL)
+            throw new UnsupportedOperationException("the global session cannot be closed");
+
+        this.closed = true;
+        this.stores.clear();
+        if (CURRENT.get() == this) {
+            if (this.previous == null)
+                CURRENT.remove();
+            else
+                CURRENT.set(this.previous);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "session " + this.name + (this.closed ? " (closed)" : "");
+    }
+}
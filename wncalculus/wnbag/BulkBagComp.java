@@ -0,0 +1,137 @@
+package wnbag;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import bagexpr.*;
+import expr.IllegalDomain;
+import expr.ParallelNormalization;
+import expr.ParametricExpr;
+import guard.And;
+import guard.ElementaryGuard;
+import guard.Guard;
+import tuple.FunctionTuple;
+import tuple.Tuple;
+
+/**
+ * this class implements the bulk composition between bags of function-tuples,
+ * i.e., the composition <code>BagComp</code> of bags with many terms, which amounts
+ * to the sum of the compositions between every left-hand and right-hand term;
+ * the N&times;M compositions are normalized in parallel (@see ParallelNormalization.forEach),
+ * sharing the (session-scoped) table of compositions between tuples;
+ * pairs whose guards are trivially incompatible are skipped; it is used by the
+ * normalization of <code>BagComp</code> when the parallel normalization is enabled
+ * and the number of pairs reaches its threshold (@see BagComp.specSimplify)
+ * @author Lorenzo Capra
+ */
+public final class BulkBagComp {
+
+    private BulkBagComp() {}
+
+    /**
+     * composes two bags in bulk, if they are bags of function-tuples whose number
+     * of pairs of terms reaches the parallel normalization threshold
+     * @param <E> the type of the bags' terms
+     * @param left the left-hand bag
+     * @param right the right-hand bag
+     * @return the bag equivalent to the composition <code>left . right</code>
+     * (@see compose); <code>null</code> if the bulk composition doesn't apply
+     */
+    public static <E extends ParametricExpr> BagExpr<E> composeLarge(Bag<E> left, Bag<E> right) {
+        if (!ParallelNormalization.isEnabled() || !(left instanceof LogicalBag<?> l && right instanceof LogicalBag<?> r)
+                || (long) l.size() * r.size() < ParallelNormalization.threshold() || l.bagType() != FunctionTuple.class)
+            return null;
+
+        @SuppressWarnings("unchecked") // safe: the bags' type is FunctionTuple (then, so is E)
+        final BagExpr<E> res = (BagExpr<E>) (BagExpr<?>) compose((LogicalBag<FunctionTuple>) l, (LogicalBag<FunctionTuple>) r);
+
+        return res;
+    }
+
+    /**
+     * composes two bags of function-tuples
+     * @param left the left-hand bag
+     * @param right the right-hand bag
+     * @return the bag equivalent to the composition <code>left . right</code>;
+     * possibly, a sum of bag-expressions, if the composition of some pairs of terms
+     * doesn't reduce to a bag
+     * @throws IllegalDomain if the bags cannot be composed due their (co-)domains
+     */
+    public static BagExpr<FunctionTuple> compose(LogicalBag<FunctionTuple> left, LogicalBag<FunctionTuple> right) {
+        if (! left.composable(right) )
+            throw new IllegalDomain();
+
+        final LogicalBag<FunctionTuple> empty = left.build(right.getDomain(), left.getCodomain());
+        if (left.isEmpty() || right.isEmpty())
+            return empty;
+
+        final List<Map.Entry<? extends FunctionTuple, Integer>> ls = new ArrayList<>(left.asMap().entrySet()), rs = new ArrayList<>(right.asMap().entrySet());
+        final int m = rs.size(), n = Math.multiplyExact(ls.size(), m);
+        final Map<FunctionTuple, Integer> acc = new ConcurrentHashMap<>();
+        final AtomicReferenceArray<BagExpr<FunctionTuple>> residues = new AtomicReferenceArray<>(n); // the compositions not reducing to bags
+        ParallelNormalization.forEach(n, p -> {
+            final Map.Entry<? extends FunctionTuple, Integer> x = ls.get(p / m), y = rs.get(p % m);
+            if (incompatible(x.getKey(), y.getKey()))
+                return;
+
+            final int k = Math.multiplyExact(x.getValue(), y.getValue());
+            final BagExpr<FunctionTuple> c = new BagComp<>(left.build(1, x.getKey()), right.build(1, y.getKey())).normalize();
+            if (c instanceof LogicalBag<FunctionTuple> b)
+                b.asMap().forEach((f, h) -> { acc.merge(f, Math.multiplyExact(h, k), Integer::sum); });
+            else
+                residues.set(p, ScalarProd.factory(c, k));
+        });
+        acc.values().removeIf(h -> h == 0);
+        final LogicalBag<FunctionTuple> bag = acc.isEmpty() ? empty : left.build(new HashMap<>(acc), false);
+        final List<BagExpr<FunctionTuple>> blist = new ArrayList<>();
+        for (int p = 0; p < n; p++) { // the same order as pairs
+            final BagExpr<FunctionTuple> r = residues.get(p);
+            if (r != null)
+                blist.add(r);
+        }
+        if (blist.isEmpty())
+            return bag;
+
+        if (!bag.isEmpty())
+            blist.add(bag);
+
+        return BagSum.factory(blist, false);
+    }
+
+    /**
+     * @param l a function-tuple
+     * @param r a function-tuple
+     * @return <code>true</code> if the composition <code>l . r</code> is trivially empty,
+     * i.e., either operand is false, or the guard of <code>l</code> and the filter
+     * of <code>r</code> contain opposite elementary guards
+     */
+    static boolean incompatible(FunctionTuple l, FunctionTuple r) {
+        if (l.isFalse() || r.isFalse())
+            return true;
+
+        if (!(l instanceof Tuple) || !(r instanceof Tuple))
+            return false;
+
+        final Guard g = ((Tuple) l).guard(), f = ((Tuple) r).filter();
+        if (g != null && g.isFalse() || f != null && f.isFalse())
+            return true;
+
+        final Set<? extends Guard> fargs = andArgs(f);
+        for (Guard e : andArgs(g))
+            if (fargs.contains(((ElementaryGuard) e).opposite()))
+                return true;
+
+        return false;
+    }
+
+    /*
+    the elementary operands of a guard in "AND" form; an empty set if the guard is
+    null (i.e., trivial) or has a different form
+    */
+    private static Set<? extends Guard> andArgs(Guard g) {
+        if (g instanceof ElementaryGuard || g instanceof And && ((And) g).getArgs().stream().allMatch(ElementaryGuard.class::isInstance))
+            return And.getArgs(g);
+
+        return Collections.emptySet();
+    }
+}
@@ -18,7 +18,7 @@ import guard.Equality;
  */
 public final class LinearComb extends LogicalBag<ElementaryFunction> implements ClassFunction {
     
-	HashMap<Integer, Map<ElementaryFunction, Integer> > components; //cache: the components, separated by index (0 is for constants)
+	private volatile HashMap<Integer, Map<ElementaryFunction, Integer> > components; //cache: the components, separated by index (0 is for constants), safely published
 	
     /**
      * base constructor: creates a linear-combination (i.e., a bag) of (elementary) class-functions
@@ -69,7 +69,7 @@ public final class LinearComb extends LogicalBag<ElementaryFunction> implements
      * @param cc the bag's colour
      */
     public LinearComb(ColorClass cc) {
-        super( new Domain(Util.singleMap(cc, 1)));
+        super( Domain.factory(Util.singleMap(cc, 1)));
     }
     
     
@@ -115,23 +115,25 @@ public final class LinearComb extends LogicalBag<ElementaryFunction> implements
      * that the linear combination is made up of constants)
      */
     public HashMap<Integer, Map<ElementaryFunction, Integer>> components () {
-    	if (this.components == null) {
-    		this.components = new HashMap<>();
+    	HashMap<Integer, Map<ElementaryFunction, Integer>> comps = this.components;
+    	if (comps == null) {
+    		final HashMap<Integer, Map<ElementaryFunction, Integer>> cmap = comps = new HashMap<>(); // built before being published
                 support().forEach(f -> {
 	            Integer i = f instanceof Projection ? ((Projection)f).getIndex() : 0;
-	            Map<ElementaryFunction, Integer> b = this.components.get(i);
+	            Map<ElementaryFunction, Integer> b = cmap.get(i);
 	            if (b == null) 
-	            	this.components.put(i, b = new HashMap<>());
+	            	cmap.put(i, b = new HashMap<>());
 	            b.put(f, mult(f)); 
 	        });
                 Map<ElementaryFunction, Integer> b;
-                if (this.components.size() > 1 && (b = this.components.get(0)) != null ) {
-                    this.components.remove(0);
-                    this.components.get(this.components.keySet().iterator().next()).putAll(b);
+                if (cmap.size() > 1 && (b = cmap.get(0)) != null ) {
+                    cmap.remove(0);
+                    cmap.get(cmap.keySet().iterator().next()).putAll(b);
                 }
+                this.components = cmap;
     	}
         
-    	return this.components;
+    	return comps;
     }
     
     /**
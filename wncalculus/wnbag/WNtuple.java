@@ -65,9 +65,19 @@ public final class WNtuple extends AbstractTuple<LinearComb>  {
         super(m, g, false);
     }
 
+    /**
+     * creates a <tt>WNtuple</tt> with the same components as a given one
+     * @param f the tuple's filter
+     * @param t a tuple
+     * @param g the tuple's guard
+     */
+    private WNtuple(Guard f, WNtuple t, Guard g) {
+        super(f, t, g);
+    }
+
     @Override
     public WNtuple build(Guard filter, Guard guard) {
-        return new WNtuple(filter, getHomSubTuples(), guard);
+        return new WNtuple(filter, this, guard);
     }
 
     